@@ -0,0 +1,107 @@
+package com.example.subway.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * 커넥션 풀 세 개와 이를 고르는 라우팅 DataSource.
+ * - primary      spring.datasource.*                 일반 쓰기
+ * - sync-writer  myapp.datasource.sync-writer.*      동기화 파이프라인 전용 (조회 트래픽과 커넥션을 다투지 않음)
+ * - replica      myapp.datasource.replica.*          readOnly 트랜잭션 (역/사용자/노선 조회)
+ * 풀마다 크기는 각자의 hikari.* 속성으로 정하고, 메트릭은 hikaricp.connections.*{pool=풀 이름}으로 나옵니다.
+ * sync-writer/replica의 url/username/password가 비어 있으면 primary와 같은 DB에 풀만 따로 만듭니다.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private final DataSourceProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public DataSourceConfig(DataSourceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool() {
+        return pool("primary", properties.determineUrl(), properties.determineUsername(),
+                properties.determinePassword(), false);
+    }
+
+    @Bean
+    @ConfigurationProperties("myapp.datasource.sync-writer.hikari")
+    public HikariDataSource syncWriterPool(@Value("${myapp.datasource.sync-writer.url:}") String url,
+                                           @Value("${myapp.datasource.sync-writer.username:}") String username,
+                                           @Value("${myapp.datasource.sync-writer.password:}") String password) {
+        return pool("sync-writer", orPrimary(url, properties.determineUrl()),
+                orPrimary(username, properties.determineUsername()),
+                orPrimary(password, properties.determinePassword()), false);
+    }
+
+    @Bean
+    @ConfigurationProperties("myapp.datasource.replica.hikari")
+    public HikariDataSource replicaPool(@Value("${myapp.datasource.replica.url:}") String url,
+                                        @Value("${myapp.datasource.replica.username:}") String username,
+                                        @Value("${myapp.datasource.replica.password:}") String password) {
+        return pool("replica", orPrimary(url, properties.determineUrl()),
+                orPrimary(username, properties.determineUsername()),
+                orPrimary(password, properties.determinePassword()), true);
+    }
+
+    /**
+     * JPA가 사용하는 DataSource. 커넥션을 첫 SQL 실행 시점에 DataSourceRoute.current()에 따라 고릅니다.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryPool") DataSource primaryPool,
+                                 @Qualifier("syncWriterPool") DataSource syncWriterPool,
+                                 @Qualifier("replicaPool") DataSource replicaPool) {
+        AbstractRoutingDataSource routing = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return DataSourceRoute.current();
+            }
+        };
+        routing.setTargetDataSources(Map.of(
+                DataSourceRoute.PRIMARY, primaryPool,
+                DataSourceRoute.SYNC_WRITER, syncWriterPool,
+                DataSourceRoute.REPLICA, replicaPool));
+        routing.setDefaultTargetDataSource(primaryPool);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password, boolean readOnly) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName(name);
+        // replica 커넥션은 읽기 전용으로 열어 실수로 들어온 쓰기를 DB에서 거부하게 함
+        dataSource.setReadOnly(readOnly);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    private static String orPrimary(String value, String primary) {
+        return value == null || value.isBlank() ? primary : value;
+    }
+}
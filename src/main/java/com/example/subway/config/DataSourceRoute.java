@@ -0,0 +1,58 @@
+package com.example.subway.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.function.Supplier;
+
+/**
+ * JPA 커넥션을 어느 풀에서 가져올지.
+ * - SYNC_WRITER: 동기화 파이프라인(train_info 조회/저장/삭제)과 스냅샷 게시. 다른 요청과 커넥션을 나눠 쓰지 않음
+ * - REPLICA: @Transactional(readOnly = true) 트랜잭션 (Spring Data 리포지토리의 조회 메서드 기본값)
+ * - PRIMARY: 그 밖의 쓰기 (회원가입/프로필 변경, lease, 스키마 갱신 등)
+ *
+ * 실제 커넥션은 첫 SQL을 실행할 때 가져오므로(LazyConnectionDataSourceProxy),
+ * 트랜잭션의 readOnly 여부가 정해진 뒤에 풀이 결정됩니다.
+ */
+public enum DataSourceRoute {
+    PRIMARY,
+    SYNC_WRITER,
+    REPLICA;
+
+    // 현재 스레드에서 트랜잭션 종류와 관계없이 사용할 풀 (run/get 안에서만 설정됨)
+    private static final ThreadLocal<DataSourceRoute> FORCED = new ThreadLocal<>();
+
+    /**
+     * 현재 스레드가 커넥션을 가져올 풀.
+     */
+    public static DataSourceRoute current() {
+        DataSourceRoute forced = FORCED.get();
+        if (forced != null) {
+            return forced;
+        }
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? REPLICA : PRIMARY;
+    }
+
+    /**
+     * work 안의 모든 DB 접근을 이 풀로 보냅니다. 조회도 포함하므로 방금 쓴 내용을 복제 지연 없이 읽습니다.
+     */
+    public void run(Runnable work) {
+        get(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public <T> T get(Supplier<T> work) {
+        DataSourceRoute previous = FORCED.get();
+        FORCED.set(this);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                FORCED.remove();
+            } else {
+                FORCED.set(previous);
+            }
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.subway.config;
 
 import com.example.subway.repository.TrainInfoRepository;
+import com.example.subway.service.LineLeaseService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
@@ -13,13 +14,27 @@ import jakarta.annotation.PostConstruct;
 public class DatabaseInitializer {
 
     private final TrainInfoRepository trainInfoRepository;
+    private final LineLeaseService lineLeaseService;
 
-    public DatabaseInitializer(TrainInfoRepository trainInfoRepository) {
+    public DatabaseInitializer(TrainInfoRepository trainInfoRepository,
+                               LineLeaseService lineLeaseService) {
         this.trainInfoRepository = trainInfoRepository;
+        this.lineLeaseService = lineLeaseService;
     }
 
     @PostConstruct
     public void initDatabase() {
+        // 생존 노드 확인과 삭제를 같은 PRIMARY에서 (replica는 복제 지연으로 방금 heartbeat한 노드를 못 볼 수 있음)
+        DataSourceRoute.PRIMARY.run(this::resetTrainInfo);
+    }
+
+    private void resetTrainInfo() {
+        // 다른 노드가 동기화 중이면 공유 중인 train_info를 지우지 않음
+        if (lineLeaseService.hasOtherLiveNodes()) {
+            log.info("[INIT] 다른 동기화 노드가 살아있어 train_info 초기화를 건너뜁니다.");
+            return;
+        }
+
         // (1) 기존 train_info 내용 모두 삭제
         trainInfoRepository.deleteAll();
 
@@ -0,0 +1,35 @@
+package com.example.subway.controller;
+
+import com.example.subway.dto.PathFailureResponse;
+import com.example.subway.dto.TopologyStatsResponse;
+import com.example.subway.service.PathFailureDiagnostics;
+import com.example.subway.service.SubwayGraphService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class DiagnosticsController {
+
+    private final PathFailureDiagnostics pathFailureDiagnostics;
+    private final SubwayGraphService subwayGraphService;
+
+    public DiagnosticsController(PathFailureDiagnostics pathFailureDiagnostics,
+                                 SubwayGraphService subwayGraphService) {
+        this.pathFailureDiagnostics = pathFailureDiagnostics;
+        this.subwayGraphService = subwayGraphService;
+    }
+
+    // (호선, 출발역, 종착역, 사유)별 경로 탐색 실패 집계 (많은 순)
+    @GetMapping("/api/diagnostics/path-failures")
+    public List<PathFailureResponse> getPathFailures() {
+        return pathFailureDiagnostics.getFailures();
+    }
+
+    // 미리 계산된 노선 경로 정보의 계산 시간/메모리 사용량
+    @GetMapping("/api/diagnostics/topology")
+    public TopologyStatsResponse getTopologyStats() {
+        return subwayGraphService.getTopologyStats();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.subway.controller;
+
+import com.example.subway.service.ETags;
+import com.example.subway.service.GtfsRealtimeService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class GtfsRealtimeController {
+
+    private static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+    // 응답한 피드의 버전 토큰. 다음 요청의 since로 넘기면 그 이후 바뀐 열차만 받음
+    private static final String FEED_VERSION = "X-Feed-Version";
+
+    private final GtfsRealtimeService gtfsRealtimeService;
+
+    public GtfsRealtimeController(GtfsRealtimeService gtfsRealtimeService) {
+        this.gtfsRealtimeService = gtfsRealtimeService;
+    }
+
+    /**
+     * GTFS-Realtime 피드 (VehiclePosition + TripUpdate, protobuf).
+     * 예) /api/gtfs-rt              전체 피드 (FULL_DATASET)
+     *     /api/gtfs-rt?since=<X-Feed-Version>   그 버전 이후 바뀐 열차만
+     *                                           (DIFFERENTIAL, 너무 오래됐거나 재시작 전/다른 노드의 토큰이면 전체 피드)
+     * 본문은 동기화 주기마다 한 번 인코딩된 배열을 그대로 보냅니다.
+     */
+    @GetMapping("/api/gtfs-rt")
+    public ResponseEntity<byte[]> getFeed(
+            @RequestParam(value = "since", required = false) String since,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        GtfsRealtimeService.FeedBody feed = since == null
+                ? gtfsRealtimeService.getFull()
+                : gtfsRealtimeService.getDifferential(since);
+        String etag = feed.full() ? ETags.of(feed.version(), "gtfs") : ETags.of(feed.version(), "gtfs", since);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .header(FEED_VERSION, feed.token())
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .header(FEED_VERSION, feed.token())
+                .cacheControl(CacheControl.noCache())
+                .contentType(PROTOBUF)
+                .body(feed.body());
+    }
+}
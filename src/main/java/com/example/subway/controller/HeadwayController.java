@@ -0,0 +1,32 @@
+package com.example.subway.controller;
+
+import com.example.subway.dto.HeadwayResponse;
+import com.example.subway.service.HeadwayAnalyticsService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class HeadwayController {
+
+    private final HeadwayAnalyticsService headwayAnalyticsService;
+
+    public HeadwayController(HeadwayAnalyticsService headwayAnalyticsService) {
+        this.headwayAnalyticsService = headwayAnalyticsService;
+    }
+
+    // 역/방향별 실시간 배차간격 (lineNum, station으로 필터)
+    @GetMapping("/api/headways")
+    public List<HeadwayResponse> getHeadways(@RequestParam(value = "lineNum", required = false) String lineNum,
+                                             @RequestParam(value = "station", required = false) String station) {
+        return headwayAnalyticsService.getHeadways(lineNum, station);
+    }
+
+    // 운행 간격이 벌어진 역/방향 목록
+    @GetMapping("/api/headways/gaps")
+    public List<HeadwayResponse> getGaps() {
+        return headwayAnalyticsService.getGaps();
+    }
+}
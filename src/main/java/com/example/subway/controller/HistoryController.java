@@ -0,0 +1,77 @@
+package com.example.subway.controller;
+
+import com.example.subway.dto.TrainHistoryResponse;
+import com.example.subway.history.HistoryQuery;
+import com.example.subway.history.TrainHistoryStore;
+import com.example.subway.service.SyncLines;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@RestController
+public class HistoryController {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    private static final int MAX_LIMIT = 10000;
+
+    private final TrainHistoryStore trainHistoryStore;
+    private final int maxDays;
+
+    public HistoryController(TrainHistoryStore trainHistoryStore,
+                             @Value("${myapp.history.max-query-days:31}") int maxDays) {
+        this.trainHistoryStore = trainHistoryStore;
+        this.maxDays = maxDays;
+    }
+
+    /**
+     * 열차 위치 이력 조회.
+     * 예) /api/history?lineNum=2호선&station=강남&from=2025-02-07T18:00:00&to=2025-02-07T20:00:00
+     * from/to를 생략하면 최근 1시간을 조회합니다.
+     * lineNum은 동기화 대상 호선만 허용하고(파티션 파일 경로에 쓰임), 조회 기간은 max-query-days일까지입니다.
+     */
+    @GetMapping("/api/history")
+    public ResponseEntity<List<TrainHistoryResponse>> getHistory(
+            @RequestParam(value = "lineNum", required = false) String lineNum,
+            @RequestParam(value = "station", required = false) String station,
+            @RequestParam(value = "trainNo", required = false) String trainNo,
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        LocalDateTime end = (to != null) ? to : LocalDateTime.now(ZONE);
+        LocalDateTime start = (from != null) ? from : end.minusHours(1);
+        if (lineNum != null && !SyncLines.ALL.containsValue(lineNum)) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (start.isAfter(end) || ChronoUnit.DAYS.between(start.toLocalDate(), end.toLocalDate()) >= maxDays) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        HistoryQuery query = new HistoryQuery(
+                start.atZone(ZONE).toInstant().toEpochMilli(),
+                end.atZone(ZONE).toInstant().toEpochMilli(),
+                lineNum, station, trainNo,
+                Math.max(1, Math.min(limit, MAX_LIMIT)));
+
+        return ResponseEntity.ok(trainHistoryStore.query(query).stream()
+                .map(e -> new TrainHistoryResponse(
+                        LocalDateTime.ofInstant(Instant.ofEpochMilli(e.getTimestamp()), ZONE),
+                        e.getLineNum(),
+                        e.getTrainNo(),
+                        e.getStationName(),
+                        e.getEndStation(),
+                        e.getUpDown(),
+                        e.getTrainSttus(),
+                        e.getDirectAt(),
+                        "1".equals(e.getLstcarAt())))
+                .toList());
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.subway.controller;
+
+import com.example.subway.dto.TrainPositionResponse;
+import com.example.subway.service.PositionInterpolator;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+public class PositionController {
+
+    private final PositionInterpolator positionInterpolator;
+
+    public PositionController(PositionInterpolator positionInterpolator) {
+        this.positionInterpolator = positionInterpolator;
+    }
+
+    // 폴링 사이의 추정 열차 위치 (구간 진행률 + 좌표). 요청 시각 기준으로 계산하므로 캐시하지 않음
+    @GetMapping("/api/positions")
+    public List<TrainPositionResponse> getPositions(@RequestParam(value = "lineNum", required = false) String lineNum) {
+        return positionInterpolator.estimate(lineNum);
+    }
+}
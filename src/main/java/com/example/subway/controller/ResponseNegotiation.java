@@ -0,0 +1,82 @@
+package com.example.subway.controller;
+
+import com.example.subway.service.CachedResponse;
+import com.example.subway.service.ResponseFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * 미리 직렬화해 둔 응답(CachedResponse)을 요청 헤더에 맞춰 내보냅니다.
+ * - Accept: application/x-jackson-smile, application/cbor 이면 바이너리 인코딩 (q 값이 높은 쪽 우선, 기본 JSON)
+ * - If-None-Match가 현재 ETag와 같으면 304
+ * - JSON은 Accept-Encoding: gzip 이면 미리 압축해 둔 본문
+ */
+final class ResponseNegotiation {
+
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+
+    private ResponseNegotiation() {
+    }
+
+    static ResponseFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return ResponseFormat.JSON;
+        }
+        List<MediaType> mediaTypes;
+        try {
+            mediaTypes = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return ResponseFormat.JSON;
+        }
+        ResponseFormat best = ResponseFormat.JSON;
+        double bestQuality = -1;
+        for (MediaType mediaType : mediaTypes) {
+            for (ResponseFormat format : ResponseFormat.values()) {
+                // */* 나 application/* 는 JSON으로 간주
+                boolean matches = format == ResponseFormat.JSON
+                        ? mediaType.includes(MediaType.APPLICATION_JSON)
+                        : mediaType.equalsTypeAndSubtype(MediaType.parseMediaType(format.mediaType()));
+                if (matches && mediaType.getQualityValue() > bestQuality) {
+                    best = format;
+                    bestQuality = mediaType.getQualityValue();
+                }
+            }
+        }
+        return best;
+    }
+
+    static ResponseEntity<byte[]> toEntity(CachedResponse response, String ifNoneMatch, String accept,
+                                           String acceptEncoding) {
+        if (ifNoneMatch != null && ifNoneMatch.contains(response.getEtag())) {
+            return notModified(response.getEtag());
+        }
+        ResponseFormat format = negotiate(accept);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                .eTag(response.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, VARY)
+                .contentType(MediaType.parseMediaType(format.mediaType()));
+        if (format == ResponseFormat.JSON && response.getGzipBody() != null && acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(response.getGzipBody());
+        }
+        return builder.body(response.getBody(format));
+    }
+
+    static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, VARY)
+                .build();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+}
@@ -1,90 +1,89 @@
 package com.example.subway.controller;
 
-import com.example.subway.domain.TrainInfo;
 import com.example.subway.dto.StationTrainResponse;
-import com.example.subway.repository.TrainInfoRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.extern.slf4j.Slf4j;
+import com.example.subway.service.CachedResponse;
+import com.example.subway.service.ResponseFormat;
+import com.example.subway.service.TrainSnapshot;
+import com.example.subway.service.TrainSnapshotService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.IOException;
-import java.util.*;
+import java.util.List;
+import java.util.Map;
 
-@Slf4j
 @RestController
 public class StationController {
 
-    private final TrainInfoRepository trainInfoRepository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TrainSnapshotService trainSnapshotService;
+    private final int maxBatchStations;
 
-    public StationController(TrainInfoRepository trainInfoRepository) {
-        this.trainInfoRepository = trainInfoRepository;
+    public StationController(TrainSnapshotService trainSnapshotService,
+                             @Value("${myapp.station-batch.max-stations:100}") int maxBatchStations) {
+        this.trainSnapshotService = trainSnapshotService;
+        this.maxBatchStations = maxBatchStations;
     }
 
+    /**
+     * 역을 지나갈 열차 목록 (List<StationTrainResponse>).
+     * 데이터는 동기화 주기마다 한 번 바뀌므로, 같은 버전에 대한 재요청은
+     * If-None-Match로 304를 받거나 미리 직렬화/압축된 본문을 그대로 받습니다.
+     */
     @GetMapping("/api/station/{stationName}")
-    public List<StationTrainResponse> getTrainsPassingStation(@PathVariable("stationName") String stationName) {
-        List<TrainInfo> allTrains = trainInfoRepository.findAll();
-        List<StationTrainResponse> result = new ArrayList<>();
-
-        for (TrainInfo train : allTrains) {
-            // JSON 형식의 역 목록을 List<String>으로 파싱
-            List<String> path = convertJsonToList(train.getStationsJson());
-            if (path == null) {
-                continue;
-            }
-
-            // 요청받은 stationName의 인덱스 확인
-            int stationIndex = path.indexOf(stationName);
-            if (stationIndex == -1) {
-                continue;
-            }
-
-            // 현재역의 인덱스 확인
-            int currIndex = path.indexOf(train.getCurrentStation());
-            if (currIndex == -1) {
-                continue;
-            }
-
-            int remainingStations = stationIndex - currIndex;
-            if (remainingStations < 0) {
-                continue;
-            }
-
-            // lstcarAt을 boolean으로 변환 ("1"이면 true, 그 외에는 false)
-            boolean isLastTrain = "1".equals(train.getLstcarAt());
-
-            StationTrainResponse dto = new StationTrainResponse(
-                    train.getTrainNo(),
-                    train.getUpDown(),
-                    isLastTrain,
-                    train.getCurrentStation(),
-                    train.getEndStation(),
-                    remainingStations,
-                    train.getLineNum()
-            );
-            result.add(dto);
+    public ResponseEntity<byte[]> getTrainsPassingStation(
+            @PathVariable("stationName") String stationName,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        String etag = trainSnapshotService.currentETag();
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseNegotiation.notModified(etag);
         }
 
-        // 남은 정거장 수 기준 오름차순 정렬
-        result.sort(Comparator.comparingInt(StationTrainResponse::getRemainingStations));
-        return result;
+        CachedResponse response = trainSnapshotService.getStationResponse(stationName);
+        return ResponseNegotiation.toEntity(response, ifNoneMatch, accept, acceptEncoding);
     }
 
     /**
-     * JSON 문자열을 List<String>으로 변환하는 헬퍼 메서드
+     * 여러 역을 지나갈 열차 목록을 한 번에 조회합니다 (대시보드/역사 안내 화면용).
+     * 예) /api/stations/trains?stations=강남,역삼,선릉&lineNum=2호선&upDown=1
+     * 모든 역이 같은 스냅샷 버전으로 계산되어 서로 어긋나지 않고, 열차 목록은 한 번만 순회합니다.
+     * 본문은 역 단위로 스트리밍합니다.
      */
-    private List<String> convertJsonToList(String json) {
-        if (json == null || json.isEmpty()) {
-            return null;
+    @GetMapping("/api/stations/trains")
+    public ResponseEntity<StreamingResponseBody> getTrainsPassingStations(
+            @RequestParam("stations") List<String> stations,
+            @RequestParam(value = "lineNum", required = false) String lineNum,
+            @RequestParam(value = "upDown", required = false) String upDown,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        List<String> stationNames = stations.stream().map(String::trim).filter(s -> !s.isEmpty()).distinct().toList();
+        if (stationNames.isEmpty() || stationNames.size() > maxBatchStations) {
+            return ResponseEntity.badRequest().build();
         }
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
-        } catch (IOException e) {
-            log.error("Failed to parse JSON string: {}", json, e);
-            return null;
+
+        TrainSnapshot snapshot = trainSnapshotService.getSnapshot();
+        String etag = trainSnapshotService.stationBatchETag(snapshot.getVersion(), stationNames, lineNum, upDown);
+        if (ifNoneMatch != null && ifNoneMatch.contains(etag)) {
+            return ResponseNegotiation.notModified(etag);
         }
+
+        ResponseFormat format = ResponseNegotiation.negotiate(accept);
+        Map<String, List<StationTrainResponse>> trainsByStation =
+                trainSnapshotService.computeStationTrains(snapshot, stationNames, lineNum, upDown);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .contentType(MediaType.parseMediaType(format.mediaType()))
+                .body(out -> trainSnapshotService.writeStationTrains(snapshot, trainsByStation, format, out));
     }
 }
@@ -0,0 +1,40 @@
+package com.example.subway.controller;
+
+import com.example.subway.dto.LineSyncStatusResponse;
+import com.example.subway.service.LineCircuitBreakerService;
+import com.example.subway.service.LineLeaseService;
+import com.example.subway.service.SyncLines;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+public class SyncStatusController {
+
+    private final LineLeaseService lineLeaseService;
+    private final LineCircuitBreakerService lineCircuitBreakerService;
+
+    public SyncStatusController(LineLeaseService lineLeaseService,
+                                LineCircuitBreakerService lineCircuitBreakerService) {
+        this.lineLeaseService = lineLeaseService;
+        this.lineCircuitBreakerService = lineCircuitBreakerService;
+    }
+
+    // 호선별 동기화 담당 여부와 circuit breaker 상태
+    @GetMapping("/api/sync/lines")
+    public List<LineSyncStatusResponse> getLineStatus() {
+        List<LineSyncStatusResponse> result = new ArrayList<>();
+        for (String lineNum : SyncLines.ALL.values()) {
+            result.add(new LineSyncStatusResponse(
+                    lineNum,
+                    lineLeaseService.isOwner(lineNum),
+                    lineCircuitBreakerService.getState(lineNum).name(),
+                    lineCircuitBreakerService.getConsecutiveFailures(lineNum),
+                    lineCircuitBreakerService.getRetryAt(lineNum),
+                    lineCircuitBreakerService.getLastSuccessAt(lineNum)));
+        }
+        return result;
+    }
+}
@@ -4,7 +4,9 @@ import com.example.subway.domain.User;
 import com.example.subway.dto.UserRegistrationRequest;
 import com.example.subway.dto.UserLoginRequest;
 import com.example.subway.dto.UserResponse;
+import com.example.subway.service.NextTrainsService;
 import com.example.subway.service.UserService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -12,9 +14,11 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/users")
 public class UserController {
     private final UserService userService;
+    private final NextTrainsService nextTrainsService;
 
-    public UserController(UserService userService) {
+    public UserController(UserService userService, NextTrainsService nextTrainsService) {
         this.userService = userService;
+        this.nextTrainsService = nextTrainsService;
     }
 
     // 회원가입 엔드포인트
@@ -39,4 +43,15 @@ public class UserController {
         User updatedUser = userService.updateUserProfile(userId, request.getWorkStation(), request.getAlertThreshold());
         return ResponseEntity.ok(new UserResponse(updatedUser.getId(), updatedUser.getUsername(), updatedUser.getWorkStation(), updatedUser.getAlertThreshold()));
     }
+
+    // 근무역 기준 다음 열차 (호선/방향별 도착 예정, 막차 상태, 예상 도착시간)
+    @GetMapping("/{userId}/next-trains")
+    public ResponseEntity<byte[]> nextTrains(@PathVariable Long userId,
+                                             @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return nextTrainsService.getNextTrains(userId)
+                .map(response -> ResponseNegotiation.toEntity(response, ifNoneMatch, accept, acceptEncoding))
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
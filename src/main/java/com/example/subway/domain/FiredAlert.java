@@ -0,0 +1,47 @@
+package com.example.subway.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 보낸 막차 알림. (운행일, 사용자, 열차)마다 한 행이라 같은 알림을 두 번 보내지 않습니다.
+ * 재시작이나 여러 노드에서도 유지되도록 메모리가 아니라 DB에 둡니다.
+ */
+@Entity
+@Getter
+@Setter
+@IdClass(FiredAlert.Key.class)
+public class FiredAlert {
+
+    @Id
+    private LocalDate serviceDay;     // 운행일 (04시 기준)
+
+    @Id
+    private Long userId;
+
+    @Id
+    private String trainNo;
+
+    private String workStation;       // 알림 대상 역
+
+    private int remainingStops;       // 알림 시점에 남은 정거장 수
+
+    private LocalDateTime firedAt;
+
+    @Getter
+    @Setter
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate serviceDay;
+        private Long userId;
+        private String trainNo;
+    }
+}
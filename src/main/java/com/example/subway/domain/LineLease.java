@@ -0,0 +1,25 @@
+package com.example.subway.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 호선별 동기화 담당 노드(lease). 여러 인스턴스가 같은 DB를 쓸 때
+ * 한 호선은 lease를 가진 노드 하나만 외부 API를 호출합니다.
+ */
+@Entity
+@Getter
+@Setter
+public class LineLease {
+
+    @Id
+    private String lineNum;           // 호선 (DB 기준 이름, 예: "1호선", "경의선")
+
+    private String owner;             // 담당 노드 ID (없으면 null)
+
+    private LocalDateTime expiresAt;  // 이 시각까지 갱신되지 않으면 다른 노드가 가져갈 수 있음
+}
@@ -0,0 +1,159 @@
+package com.example.subway.domain;
+
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 메모리에서 사용하는 운행 중 열차의 압축 표현 (TrainInfo 엔티티는 DB 저장/조회 경계에서만 사용).
+ * - 코드성 필드(상하행, 열차상태, 급행, 막차)는 byte
+ * - 역 이름은 StationDictionary의 int ID, 경로는 같은 내용끼리 공유하는 int[]
+ * - 시각은 2020-01-01 기준 초 단위 int
+ */
+@Getter
+public final class LiveTrain {
+
+    private static final long EPOCH_2020 = LocalDateTime.of(2020, 1, 1, 0, 0).toEpochSecond(ZoneOffset.UTC);
+
+    private final String trainNo;
+    private final String lineNum;          // 호선 (공유 문자열)
+    private final short subwayId;          // 지하철호선ID (예: 1001)
+    private final long statnId;            // 현재역 ID (없으면 -1)
+    private final long statnTid;           // 종착역 ID (없으면 -1)
+    private final int currentStationId;    // StationDictionary ID
+    private final int endStationId;        // StationDictionary ID
+    private final byte upDown;             // Direction ordinal
+    private final byte trainSttus;         // Status ordinal
+    private final byte directAt;           // ServiceType ordinal
+    private final boolean lastTrain;
+    private final int recptnTime;          // 최종수신시간 (2020-01-01 기준 초, 없으면 -1)
+    private final int updateTime;          // 마지막 갱신 시간 (2020-01-01 기준 초, 없으면 -1)
+    private final int[] route;             // 남은 경로의 역 ID (같은 경로를 가진 열차끼리 공유, 수정 금지)
+    private final int routeOffset;         // route[0]이 처음 구한 경로에서 몇 번째 역인지
+
+    public LiveTrain(String trainNo, String lineNum, short subwayId, long statnId, long statnTid,
+                     int currentStationId, int endStationId, Direction upDown, Status trainSttus,
+                     ServiceType directAt, boolean lastTrain, LocalDateTime recptnTime,
+                     LocalDateTime updateTime, int[] route, int routeOffset) {
+        this.trainNo = trainNo;
+        this.lineNum = lineNum;
+        this.subwayId = subwayId;
+        this.statnId = statnId;
+        this.statnTid = statnTid;
+        this.currentStationId = currentStationId;
+        this.endStationId = endStationId;
+        this.upDown = (byte) upDown.ordinal();
+        this.trainSttus = (byte) trainSttus.ordinal();
+        this.directAt = (byte) directAt.ordinal();
+        this.lastTrain = lastTrain;
+        this.recptnTime = pack(recptnTime);
+        this.updateTime = pack(updateTime);
+        this.route = route;
+        this.routeOffset = routeOffset;
+    }
+
+    public Direction direction() {
+        return Direction.VALUES[upDown];
+    }
+
+    public Status status() {
+        return Status.VALUES[trainSttus];
+    }
+
+    public ServiceType serviceType() {
+        return ServiceType.VALUES[directAt];
+    }
+
+    public LocalDateTime recptnDateTime() {
+        return unpack(recptnTime);
+    }
+
+    public LocalDateTime updateDateTime() {
+        return unpack(updateTime);
+    }
+
+    /**
+     * 경로에서 stationId의 위치 (없으면 -1).
+     */
+    public int indexOf(int stationId) {
+        for (int i = 0; i < route.length; i++) {
+            if (route[i] == stationId) return i;
+        }
+        return -1;
+    }
+
+    private static int pack(LocalDateTime time) {
+        return time == null ? -1 : (int) (time.toEpochSecond(ZoneOffset.UTC) - EPOCH_2020);
+    }
+
+    private static LocalDateTime unpack(int packed) {
+        return packed < 0 ? null : LocalDateTime.ofEpochSecond(EPOCH_2020 + packed, 0, ZoneOffset.UTC);
+    }
+
+    /** 상하행 (API 코드 0: 상행/내선, 1: 하행/외선) */
+    public enum Direction {
+        UP("0"), DOWN("1");
+
+        static final Direction[] VALUES = values();
+        private final String code;
+
+        Direction(String code) {
+            this.code = code;
+        }
+
+        public String code() {
+            return code;
+        }
+
+        public static Direction of(String code) {
+            return "1".equals(code) ? DOWN : UP;
+        }
+    }
+
+    /** 열차상태 (API 코드 0:진입, 1:도착, 2:출발, 3:전역출발) */
+    public enum Status {
+        APPROACH("0"), ARRIVE("1"), DEPART("2"), PREV_DEPART("3");
+
+        static final Status[] VALUES = values();
+        private final String code;
+
+        Status(String code) {
+            this.code = code;
+        }
+
+        public String code() {
+            return code;
+        }
+
+        public static Status of(String code) {
+            for (Status s : VALUES) {
+                if (s.code.equals(code)) return s;
+            }
+            return APPROACH;
+        }
+    }
+
+    /** 급행여부 (API 코드 0:일반, 1:급행, 7:특급) */
+    public enum ServiceType {
+        LOCAL("0"), EXPRESS("1"), SPECIAL("7");
+
+        static final ServiceType[] VALUES = values();
+        private final String code;
+
+        ServiceType(String code) {
+            this.code = code;
+        }
+
+        public String code() {
+            return code;
+        }
+
+        public static ServiceType of(String code) {
+            for (ServiceType t : VALUES) {
+                if (t.code.equals(code)) return t;
+            }
+            return LOCAL;
+        }
+    }
+}
@@ -3,8 +3,13 @@ package com.example.subway.domain;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// 역 연결 정보는 dataset 스크립트로만 적재되는 참조 데이터 -> 읽기 전용 2차 캐시
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "subwayData")
 @Getter
 @Setter
 public class SubwayData {
@@ -0,0 +1,22 @@
+package com.example.subway.domain;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * 동기화에 참여 중인 노드와 마지막 heartbeat 시각. 살아있는 노드 수로 호선 분배량을 정합니다.
+ */
+@Entity
+@Getter
+@Setter
+public class SyncNode {
+
+    @Id
+    private String nodeId;
+
+    private LocalDateTime heartbeatAt;
+}
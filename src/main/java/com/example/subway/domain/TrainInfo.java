@@ -36,5 +36,9 @@ public class TrainInfo {
     @Lob
     private String stationsJson;   // 열차가 지나갈 역 목록 (JSON)
 
+    // stationsJson의 첫 역이 이 열차에 처음 구한 경로에서 몇 번째 역인지 (지나온 역을 잘라낼 때마다 증가, 없으면 0)
+    // GTFS-Realtime stop_sequence = routeOffset + stationsJson 안의 위치
+    private Integer routeOffset;
+
     private LocalDateTime updateTime; // 마지막 갱신 시간
 }
@@ -0,0 +1,21 @@
+package com.example.subway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class HeadwayResponse {
+    private String lineNum;
+    private String station;
+    private String upDown;
+    private LocalDateTime lastArrival;  // 마지막 도착 시각
+    private int samples;                // 계산에 사용된 배차간격 수
+    private long p50Seconds;            // 배차간격 중앙값 (초)
+    private long p90Seconds;            // 배차간격 90퍼센타일 (초)
+    private long maxSeconds;            // 최근 창 내 최대 배차간격 (초)
+    private long currentGapSeconds;     // 마지막 도착 이후 경과 시간 (초)
+    private boolean gap;                // 운행 간격 벌어짐 여부
+}
@@ -0,0 +1,17 @@
+package com.example.subway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class LineSyncStatusResponse {
+    private String lineNum;
+    private boolean owned;              // 이 노드가 동기화 담당인지 여부
+    private String breakerState;        // CLOSED / OPEN / HALF_OPEN
+    private int consecutiveFailures;
+    private LocalDateTime retryAt;      // OPEN일 때 다음 호출 시각
+    private LocalDateTime lastSuccessAt;
+}
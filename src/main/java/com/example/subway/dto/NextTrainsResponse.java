@@ -0,0 +1,38 @@
+package com.example.subway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 근무역 기준 "다음 열차" 응답. 같은 역을 근무역으로 둔 사용자는 같은 본문을 공유합니다.
+ */
+@Getter
+@AllArgsConstructor
+public class NextTrainsResponse {
+    private String stationName;
+    private long snapshotVersion;          // 이 응답을 만든 스냅샷 버전
+    private List<Direction> directions;    // 호선/방향별 도착 예정 열차
+
+    @Getter
+    @AllArgsConstructor
+    public static class Direction {
+        private String lineNum;
+        private String upDown;             // 0: 상행/내선, 1: 하행/외선
+        private String lastTrainStatus;    // NONE: 막차 미확인, APPROACHING: 막차 접근 중, PASSED: 오늘 막차 통과
+        private List<Arrival> arrivals;    // 도착 예정 순
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Arrival {
+        private String trainNo;
+        private String currentStation;
+        private String endStation;
+        private int remainingStations;
+        private long etaSeconds;           // 정거장당 평균 소요시간으로 추정한 도착까지 남은 시간 (초)
+        private boolean lastTrain;
+        private boolean express;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.subway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class PathFailureResponse {
+    private String lineNum;
+    private String start;
+    private String end;
+    private String reason;          // 경로 탐색 실패 사유
+    private long count;             // 누적 실패 횟수 (negative cache 적중 포함)
+    private int visitedCount;       // 마지막 탐색에서 방문한 노드 수
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+}
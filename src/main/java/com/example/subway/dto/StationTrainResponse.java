@@ -13,4 +13,5 @@ public class StationTrainResponse {
     private String endStation;
     private int remainingStations;     // 남은 정거장 수
     private String lineNum;            // 열차가 운행 중인 호선 정보
+    private long dataAgeSeconds;       // 스냅샷 게시 시점 기준, 열차 정보가 마지막으로 갱신된 후 지난 시간(초)
 }
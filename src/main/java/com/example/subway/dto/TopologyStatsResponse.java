@@ -0,0 +1,18 @@
+package com.example.subway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class TopologyStatsResponse {
+    private LocalDateTime builtAt;
+    private long buildMillis;       // SubwayData 조회 + 전 호선 병렬 계산에 걸린 시간
+    private int parallelism;        // 계산에 사용한 ForkJoin 병렬도
+    private int topologies;         // 호선 x 노선종류(일반/급행) 수
+    private int stations;           // 호선별 역 수 합계
+    private int branches;           // 종점-종점 정차역 순서 수 합계
+    private long footprintBytes;    // 행렬/배열이 차지하는 추정 힙 크기
+}
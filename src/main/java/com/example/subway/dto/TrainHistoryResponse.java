@@ -0,0 +1,20 @@
+package com.example.subway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class TrainHistoryResponse {
+    private LocalDateTime timestamp;   // 이벤트 시각
+    private String lineNum;
+    private String trainNo;
+    private String station;            // 이벤트 발생 역
+    private String endStation;
+    private String upDown;
+    private String trainSttus;         // 열차상태구분 (0:진입, 1:도착, 2:출발, 3:전역출발)
+    private String directAt;
+    private boolean lastTrain;
+}
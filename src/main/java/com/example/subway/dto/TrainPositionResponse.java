@@ -0,0 +1,23 @@
+package com.example.subway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class TrainPositionResponse {
+    private String trainNo;
+    private String lineNum;
+    private String upDown;
+    private String trainSttus;          // 마지막으로 관측된 열차상태
+    private String fromStation;         // 지금 지나는 구간의 앞역 (모르면 null)
+    private String toStation;           // 지금 지나는 구간의 뒷역
+    private double progress;            // 구간 진행률 (0: fromStation, 1: toStation)
+    private Double latitude;            // 추정 위도 (역 좌표가 없으면 null)
+    private Double longitude;           // 추정 경도
+    private long segmentSeconds;        // 추정에 사용한 구간 소요시간 (초)
+    private LocalDateTime observedAt;   // 위치 수신 시각
+    private LocalDateTime estimatedAt;  // 추정 기준 시각
+}
@@ -0,0 +1,213 @@
+package com.example.subway.history;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 위치 이벤트 묶음을 컬럼 단위로 인코딩/디코딩하는 청크 포맷.
+ *
+ * <pre>
+ * int   MAGIC
+ * int   chunkLength      (이 필드 이후의 바이트 수, 청크 건너뛰기용)
+ * int   rowCount
+ * long  minTs, maxTs     (시간 범위가 겹치지 않으면 청크 전체를 건너뜀)
+ * int   dictSize + [short len, UTF-8 bytes]*   (열차번호/역명 공용 사전)
+ * 컬럼: ts(zigzag varint delta) | train(varint) | station(varint) | endStation(varint) | flags(byte)
+ * </pre>
+ */
+final class ColumnChunk {
+
+    static final int MAGIC = 0x53574843; // "SWHC"
+
+    private ColumnChunk() {
+    }
+
+    static byte[] encode(List<PositionEvent> events) {
+        Map<String, Integer> dict = new LinkedHashMap<>();
+        long minTs = Long.MAX_VALUE;
+        long maxTs = Long.MIN_VALUE;
+        for (PositionEvent e : events) {
+            minTs = Math.min(minTs, e.getTimestamp());
+            maxTs = Math.max(maxTs, e.getTimestamp());
+        }
+
+        ByteArrayOutputStream columns = new ByteArrayOutputStream(events.size() * 6);
+        long prev = minTs;
+        for (PositionEvent e : events) {
+            writeVarLong(columns, zigzag(e.getTimestamp() - prev));
+            prev = e.getTimestamp();
+        }
+        for (PositionEvent e : events) {
+            writeVarLong(columns, dictId(dict, e.getTrainNo()));
+        }
+        for (PositionEvent e : events) {
+            writeVarLong(columns, dictId(dict, e.getStationName()));
+        }
+        for (PositionEvent e : events) {
+            writeVarLong(columns, dictId(dict, e.getEndStation()));
+        }
+        for (PositionEvent e : events) {
+            columns.write(packFlags(e));
+        }
+
+        List<byte[]> dictBytes = new ArrayList<>(dict.size());
+        int dictLength = 4;
+        for (String s : dict.keySet()) {
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            dictBytes.add(b);
+            dictLength += 2 + b.length;
+        }
+
+        int chunkLength = 4 + 8 + 8 + dictLength + columns.size();
+        ByteBuffer buf = ByteBuffer.allocate(8 + chunkLength);
+        buf.putInt(MAGIC);
+        buf.putInt(chunkLength);
+        buf.putInt(events.size());
+        buf.putLong(minTs);
+        buf.putLong(maxTs);
+        buf.putInt(dictBytes.size());
+        for (byte[] b : dictBytes) {
+            buf.putShort((short) b.length);
+            buf.put(b);
+        }
+        buf.put(columns.toByteArray());
+        return buf.array();
+    }
+
+    /**
+     * buf의 현재 위치에서 청크 하나를 읽어 조건에 맞는 이벤트를 out에 추가합니다.
+     * 청크를 끝까지 읽을 수 없으면(기록 중 잘린 경우 등) false를 반환합니다.
+     */
+    static boolean scan(ByteBuffer buf, String lineNum, HistoryQuery query, List<PositionEvent> out) {
+        if (buf.remaining() < 8 || buf.getInt() != MAGIC) {
+            return false;
+        }
+        int chunkLength = buf.getInt();
+        if (buf.remaining() < chunkLength) {
+            return false;
+        }
+        int chunkEnd = buf.position() + chunkLength;
+
+        int rowCount = buf.getInt();
+        long minTs = buf.getLong();
+        long maxTs = buf.getLong();
+        if (!query.overlaps(minTs, maxTs)) {
+            buf.position(chunkEnd);
+            return true;
+        }
+
+        String[] dict = new String[buf.getInt()];
+        for (int i = 0; i < dict.length; i++) {
+            byte[] b = new byte[buf.getShort() & 0xFFFF];
+            buf.get(b);
+            dict[i] = new String(b, StandardCharsets.UTF_8);
+        }
+        // 사전에 없는 역/열차로 필터링하면 컬럼을 풀지 않고 건너뜀
+        if ((query.getStationName() != null && !contains(dict, query.getStationName()))
+                || (query.getTrainNo() != null && !contains(dict, query.getTrainNo()))) {
+            buf.position(chunkEnd);
+            return true;
+        }
+
+        long[] ts = new long[rowCount];
+        long prev = minTs;
+        for (int i = 0; i < rowCount; i++) {
+            prev += unzigzag(readVarLong(buf));
+            ts[i] = prev;
+        }
+        int[] trains = readIds(buf, rowCount);
+        int[] stations = readIds(buf, rowCount);
+        int[] ends = readIds(buf, rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            byte flags = buf.get();
+            PositionEvent e = new PositionEvent(ts[i], lineNum, dict[trains[i]], dict[stations[i]], dict[ends[i]],
+                    flagUpDown(flags), flagTrainSttus(flags), flagDirectAt(flags), flagLstcarAt(flags));
+            if (query.matches(e)) {
+                out.add(e);
+            }
+        }
+        buf.position(chunkEnd);
+        return true;
+    }
+
+    // flags: bit0 upDown, bit1 lstcarAt, bit2-3 trainSttus, bit4-5 directAt(0:일반, 1:급행, 2:특급)
+    private static int packFlags(PositionEvent e) {
+        int flags = 0;
+        if ("1".equals(e.getUpDown())) flags |= 1;
+        if ("1".equals(e.getLstcarAt())) flags |= 1 << 1;
+        flags |= (parseDigit(e.getTrainSttus()) & 0x3) << 2;
+        if ("1".equals(e.getDirectAt())) flags |= 1 << 4;
+        else if ("7".equals(e.getDirectAt())) flags |= 2 << 4;
+        return flags;
+    }
+
+    private static String flagUpDown(byte flags) {
+        return (flags & 1) != 0 ? "1" : "0";
+    }
+
+    private static String flagLstcarAt(byte flags) {
+        return (flags & (1 << 1)) != 0 ? "1" : "0";
+    }
+
+    private static String flagTrainSttus(byte flags) {
+        return String.valueOf((flags >> 2) & 0x3);
+    }
+
+    private static String flagDirectAt(byte flags) {
+        int d = (flags >> 4) & 0x3;
+        return d == 1 ? "1" : d == 2 ? "7" : "0";
+    }
+
+    private static int parseDigit(String s) {
+        return (s != null && s.length() == 1 && Character.isDigit(s.charAt(0))) ? s.charAt(0) - '0' : 0;
+    }
+
+    private static int dictId(Map<String, Integer> dict, String value) {
+        return dict.computeIfAbsent(value == null ? "" : value, k -> dict.size());
+    }
+
+    private static boolean contains(String[] dict, String value) {
+        for (String s : dict) {
+            if (s.equals(value)) return true;
+        }
+        return false;
+    }
+
+    private static int[] readIds(ByteBuffer buf, int rowCount) {
+        int[] ids = new int[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            ids[i] = (int) readVarLong(buf);
+        }
+        return ids;
+    }
+
+    private static long zigzag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unzigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(ByteBuffer buf) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.subway.history;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 이력 조회 조건. lineNum, stationName, trainNo는 null이면 필터하지 않습니다.
+ */
+@Getter
+@AllArgsConstructor
+public class HistoryQuery {
+    private long from;             // 조회 시작 시각 (epoch millis, 포함)
+    private long to;               // 조회 종료 시각 (epoch millis, 포함)
+    private String lineNum;
+    private String stationName;
+    private String trainNo;
+    private int limit;             // 최대 반환 건수
+
+    boolean overlaps(long minTs, long maxTs) {
+        return maxTs >= from && minTs <= to;
+    }
+
+    boolean matches(PositionEvent e) {
+        return e.getTimestamp() >= from && e.getTimestamp() <= to
+                && (stationName == null || stationName.equals(e.getStationName()))
+                && (trainNo == null || trainNo.equals(e.getTrainNo()));
+    }
+}
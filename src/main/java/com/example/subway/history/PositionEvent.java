@@ -0,0 +1,22 @@
+package com.example.subway.history;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 이력 저장소에 기록되는 열차 위치 이벤트 한 건.
+ * 코드성 필드(upDown, trainSttus, directAt, lstcarAt)는 청크 저장 시 1바이트 flags로 묶여 저장됩니다.
+ */
+@Getter
+@AllArgsConstructor
+public class PositionEvent {
+    private long timestamp;        // 이벤트 시각 (epoch millis)
+    private String lineNum;        // 호선
+    private String trainNo;        // 열차번호
+    private String stationName;    // 현재역
+    private String endStation;     // 종착역
+    private String upDown;         // 상하행 (0: 상행/내선, 1: 하행/외선)
+    private String trainSttus;     // 열차상태 (0:진입, 1:도착, 2:출발, 3:전역출발)
+    private String directAt;       // 급행여부 (1:급행, 0:아님, 7:특급)
+    private String lstcarAt;       // 막차여부 (1:막차, 0:아님)
+}
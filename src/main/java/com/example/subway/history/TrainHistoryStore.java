@@ -0,0 +1,272 @@
+package com.example.subway.history;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * 열차 위치 이벤트를 일자/호선별 파티션 파일에 컬럼 청크로 쌓아두는 내장 이력 저장소.
+ * - 쓰기: 파티션별 메모리 버퍼에 모았다가 chunk-rows 건이 차거나 chunk-max-age가 지나면 청크 하나로 append
+ *   (기존 파일 + 새 청크를 임시 파일에 쓴 뒤 rename하므로 읽는 쪽은 반쯤 쓰인 청크나 중복 청크를 보지 않음)
+ * - 기록에 실패하면 점점 길게 기다렸다가 다시 시도하고, 그동안 버퍼가 max-buffer-rows를 넘으면 오래된 행부터 버림
+ * - 읽기: 파티션 파일을 memory-map 하여 청크 헤더(시간 범위, 사전)로 걸러가며 스캔
+ *
+ * 디렉토리 구조: {myapp.history.dir}/{yyyy-MM-dd}/{lineNum}.col
+ */
+@Slf4j
+@Service
+public class TrainHistoryStore {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    private static final String SUFFIX = ".col";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final long INITIAL_RETRY_MILLIS = 1000;
+
+    private final Path baseDir;
+    private final int chunkRows;
+    private final long chunkMaxAgeMillis;
+    private final int maxBufferRows;
+    private final long maxRetryMillis;
+    private final Counter droppedCounter;
+
+    // 아직 파일에 기록되지 않은 파티션별 버퍼
+    private final Map<String, Partition> partitions = new ConcurrentHashMap<>();
+
+    public TrainHistoryStore(@Value("${myapp.history.dir:history}") String baseDir,
+                             @Value("${myapp.history.chunk-rows:4096}") int chunkRows,
+                             @Value("${myapp.history.chunk-max-age:600000}") long chunkMaxAgeMillis,
+                             @Value("${myapp.history.max-buffer-rows:32768}") int maxBufferRows,
+                             @Value("${myapp.history.retry-backoff-max:300000}") long maxRetryMillis,
+                             MeterRegistry meterRegistry) {
+        if (maxBufferRows < 2 * chunkRows) {
+            throw new IllegalStateException("max-buffer-rows(" + maxBufferRows
+                    + ")는 chunk-rows(" + chunkRows + ")의 2배 이상이어야 합니다.");
+        }
+        this.baseDir = Paths.get(baseDir);
+        this.chunkRows = chunkRows;
+        this.chunkMaxAgeMillis = chunkMaxAgeMillis;
+        this.maxBufferRows = maxBufferRows;
+        this.maxRetryMillis = maxRetryMillis;
+        this.droppedCounter = Counter.builder("subway.history.dropped")
+                .description("청크 기록 실패가 이어져 버퍼 한도를 넘어 버린 이력 행 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 이벤트 한 건을 해당 일자/호선 파티션 버퍼에 추가합니다.
+     */
+    public void append(PositionEvent event) {
+        LocalDate day = Instant.ofEpochMilli(event.getTimestamp()).atZone(ZONE).toLocalDate();
+        String key = day + "/" + event.getLineNum();
+        while (true) {
+            Partition partition = partitions.computeIfAbsent(key, k -> new Partition(day, event.getLineNum()));
+            synchronized (partition) {
+                // flushExpired가 방금 정리한 파티션이면 새 파티션을 받아 다시 시도
+                if (partition.removed) {
+                    continue;
+                }
+                if (partition.buffer.isEmpty()) {
+                    partition.createdAt = System.currentTimeMillis();
+                }
+                partition.buffer.add(event);
+                if (partition.buffer.size() >= chunkRows && partition.retryDue(System.currentTimeMillis())) {
+                    flush(partition);
+                }
+                dropOverflow(partition);
+                return;
+            }
+        }
+    }
+
+    /**
+     * 오래된 버퍼를 청크로 내려씁니다. 동기화 주기마다 호출됩니다.
+     */
+    public void flushExpired() {
+        long now = System.currentTimeMillis();
+        LocalDate today = LocalDate.now(ZONE);
+        for (Map.Entry<String, Partition> entry : partitions.entrySet()) {
+            Partition partition = entry.getValue();
+            synchronized (partition) {
+                if (!partition.buffer.isEmpty() && now - partition.createdAt >= chunkMaxAgeMillis
+                        && partition.retryDue(now)) {
+                    flush(partition);
+                }
+                // 지난 날짜의 빈 파티션은 정리 (append와 같은 락 안에서 판단하고, 늦게 온 append는 새 파티션에 기록)
+                if (partition.day.isBefore(today) && partition.buffer.isEmpty()) {
+                    partition.removed = true;
+                    partitions.remove(entry.getKey(), partition);
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void flushAll() {
+        for (Partition partition : partitions.values()) {
+            synchronized (partition) {
+                if (!partition.buffer.isEmpty()) {
+                    flush(partition);
+                }
+            }
+        }
+    }
+
+    /**
+     * 시간 범위 + (호선/역/열차) 조건으로 이력을 조회합니다. 결과는 시각 오름차순.
+     * 일자 순서대로 읽다가 limit 건이 차면 이후 일자는 읽지 않습니다.
+     * 한 파티션 파일도 청크가 기록 순서(대략 시각 순)로 쌓이므로 호선마다 limit 건까지만 읽습니다.
+     */
+    public List<PositionEvent> query(HistoryQuery query) {
+        List<PositionEvent> result = new ArrayList<>();
+        LocalDate fromDay = Instant.ofEpochMilli(query.getFrom()).atZone(ZONE).toLocalDate();
+        LocalDate toDay = Instant.ofEpochMilli(query.getTo()).atZone(ZONE).toLocalDate();
+
+        for (LocalDate day = fromDay; !day.isAfter(toDay) && result.size() < query.getLimit(); day = day.plusDays(1)) {
+            List<PositionEvent> dayEvents = new ArrayList<>();
+            for (String lineNum : linesOf(day, query.getLineNum())) {
+                List<PositionEvent> lineEvents = new ArrayList<>();
+                Path file = baseDir.resolve(day.toString()).resolve(lineNum + SUFFIX).normalize();
+                if (!file.startsWith(baseDir.normalize())) {
+                    log.warn("이력 디렉토리 밖의 경로는 읽지 않습니다: {}", file);
+                    continue;
+                }
+                scanFile(file, lineNum, query, lineEvents);
+
+                Partition partition = partitions.get(day + "/" + lineNum);
+                if (partition != null) {
+                    synchronized (partition) {
+                        for (PositionEvent e : partition.buffer) {
+                            if (query.matches(e)) lineEvents.add(e);
+                        }
+                    }
+                }
+                dayEvents.addAll(lineEvents);
+            }
+            dayEvents.sort(Comparator.comparingLong(PositionEvent::getTimestamp));
+            result.addAll(dayEvents.subList(0, Math.min(dayEvents.size(), query.getLimit() - result.size())));
+        }
+        return result;
+    }
+
+    private Set<String> linesOf(LocalDate day, String lineNum) {
+        if (lineNum != null) {
+            return Set.of(lineNum);
+        }
+        Set<String> lines = new TreeSet<>();
+        Path dayDir = baseDir.resolve(day.toString());
+        if (Files.isDirectory(dayDir)) {
+            try (Stream<Path> files = Files.list(dayDir)) {
+                files.map(p -> p.getFileName().toString())
+                        .filter(name -> name.endsWith(SUFFIX))
+                        .forEach(name -> lines.add(name.substring(0, name.length() - SUFFIX.length())));
+            } catch (IOException e) {
+                log.error("이력 디렉토리 조회 실패: {}", dayDir, e);
+            }
+        }
+        for (Partition partition : partitions.values()) {
+            if (partition.day.equals(day)) lines.add(partition.lineNum);
+        }
+        return lines;
+    }
+
+    private void scanFile(Path file, String lineNum, HistoryQuery query, List<PositionEvent> out) {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ByteBuffer buf = mapped.duplicate();
+            while (buf.hasRemaining() && out.size() < query.getLimit()) {
+                if (!ColumnChunk.scan(buf, lineNum, query, out)) {
+                    log.warn("이력 파일 {} 의 마지막 청크가 불완전하여 건너뜁니다.", file);
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            log.error("이력 파일 읽기 실패: {}", file, e);
+        }
+    }
+
+    // partition 락을 잡은 상태에서 호출.
+    // 기존 파일을 임시 파일로 복사하고 새 청크를 덧붙인 뒤 rename으로 바꿔치기하므로
+    // 실패해도 원본 파일은 그대로이고, 재시도 때 같은 청크가 두 번 들어가지 않음
+    private void flush(Partition partition) {
+        Path file = baseDir.resolve(partition.day.toString()).resolve(partition.lineNum + SUFFIX);
+        Path tmp = file.resolveSibling(partition.lineNum + SUFFIX + TMP_SUFFIX);
+        byte[] chunk = ColumnChunk.encode(partition.buffer);
+        try {
+            Files.createDirectories(file.getParent());
+            if (Files.exists(file)) {
+                Files.copy(file, tmp, StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                Files.deleteIfExists(tmp);
+            }
+            Files.write(tmp, chunk, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("[HISTORY] {} 에 {}건 ({} bytes) 청크 기록", file, partition.buffer.size(), chunk.length);
+            partition.buffer.clear();
+            partition.retryMillis = 0;
+            partition.retryAt = 0;
+        } catch (IOException e) {
+            partition.retryMillis = partition.retryMillis == 0
+                    ? INITIAL_RETRY_MILLIS : Math.min(maxRetryMillis, partition.retryMillis * 2);
+            partition.retryAt = System.currentTimeMillis() + partition.retryMillis;
+            log.error("이력 청크 기록 실패: {} ({}ms 후 다시 시도, 대기 {}건)",
+                    file, partition.retryMillis, partition.buffer.size(), e);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // 다음 기록 때 덮어씀
+            }
+        }
+    }
+
+    // partition 락을 잡은 상태에서 호출. 기록 실패가 이어져 버퍼가 한도를 넘으면 오래된 행부터 버림
+    // (한 청크 분량을 한꺼번에 버려서 한도에 머무는 동안 append마다 배열을 당기지 않음)
+    private void dropOverflow(Partition partition) {
+        if (partition.buffer.size() <= maxBufferRows) {
+            return;
+        }
+        int overflow = partition.buffer.size() - (maxBufferRows - chunkRows);
+        partition.buffer.subList(0, overflow).clear();
+        droppedCounter.increment(overflow);
+        log.warn("[HISTORY] {}/{} 버퍼가 {}건을 넘어 오래된 이력 {}건을 버렸습니다.",
+                partition.day, partition.lineNum, maxBufferRows, overflow);
+    }
+
+    private static final class Partition {
+        private final LocalDate day;
+        private final String lineNum;
+        private final List<PositionEvent> buffer = new ArrayList<>();
+        private long createdAt = System.currentTimeMillis();
+        // 기록 실패 후 다음 시도 시각과 현재 대기 간격 (성공하면 0)
+        private long retryAt;
+        private long retryMillis;
+        // flushExpired가 맵에서 뺀 파티션 (이후 append는 새 파티션으로)
+        private boolean removed;
+
+        private Partition(LocalDate day, String lineNum) {
+            this.day = day;
+            this.lineNum = lineNum;
+        }
+
+        private boolean retryDue(long now) {
+            return now >= retryAt;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.subway.repository;
+
+import com.example.subway.domain.FiredAlert;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+public interface FiredAlertRepository extends JpaRepository<FiredAlert, FiredAlert.Key> {
+
+    // 이번 운행일에 처음 보내는 알림이면 1, 이미 보낸 (사용자, 열차)면 0 (동시에 여러 노드가 넣어도 하나만 성공)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO fired_alert " +
+                   "(service_day, user_id, train_no, work_station, remaining_stops, fired_at) " +
+                   "VALUES (:serviceDay, :userId, :trainNo, :workStation, :remainingStops, :firedAt)",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("serviceDay") LocalDate serviceDay,
+                       @Param("userId") Long userId,
+                       @Param("trainNo") String trainNo,
+                       @Param("workStation") String workStation,
+                       @Param("remainingStops") int remainingStops,
+                       @Param("firedAt") LocalDateTime firedAt);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM FiredAlert f WHERE f.serviceDay < :before")
+    int deleteBefore(@Param("before") LocalDate before);
+}
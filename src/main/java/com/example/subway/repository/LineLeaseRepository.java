@@ -0,0 +1,63 @@
+package com.example.subway.repository;
+
+import com.example.subway.domain.LineLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * 만료 판단과 만료 시각 계산은 모두 DB 시계(CURRENT_TIMESTAMP)로 합니다.
+ * 노드마다 로컬 시계가 어긋나도 두 노드가 같은 호선을 동시에 갖지 않도록.
+ */
+public interface LineLeaseRepository extends JpaRepository<LineLease, String> {
+
+    // 보유 중인 lease의 DB 기준 남은 시간
+    interface Remaining {
+        String getLineNum();
+
+        Long getRemainingMicros();
+    }
+
+    // 비어 있거나 만료되었거나 이미 내 것인 lease만 가져감 (조건부 UPDATE로 경쟁 노드 간 원자성 보장)
+    // 만료 시각 = DB 현재 시각 + ttl
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE line_lease " +
+                   "SET owner = :owner, expires_at = TIMESTAMPADD(MICROSECOND, :ttlMicros, CURRENT_TIMESTAMP(6)) " +
+                   "WHERE line_num = :lineNum " +
+                   "AND (owner IS NULL OR owner = :owner OR expires_at IS NULL OR expires_at < CURRENT_TIMESTAMP(6))",
+           nativeQuery = true)
+    int tryAcquire(@Param("lineNum") String lineNum,
+                   @Param("owner") String owner,
+                   @Param("ttlMicros") long ttlMicros);
+
+    // 주인이 없거나 DB 시각 기준으로 만료된 호선
+    @Query(value = "SELECT line_num FROM line_lease " +
+                   "WHERE owner IS NULL OR expires_at IS NULL OR expires_at < CURRENT_TIMESTAMP(6) " +
+                   "ORDER BY line_num",
+           nativeQuery = true)
+    List<String> findFreeLineNums();
+
+    // owner가 가진 lease마다 만료까지 남은 시간 (DB 시각 기준, 마이크로초)
+    @Query(value = "SELECT line_num AS lineNum, " +
+                   "TIMESTAMPDIFF(MICROSECOND, CURRENT_TIMESTAMP(6), expires_at) AS remainingMicros " +
+                   "FROM line_lease WHERE owner = :owner",
+           nativeQuery = true)
+    List<Remaining> findRemaining(@Param("owner") String owner);
+
+    // 행이 없을 때만 추가 (여러 노드가 동시에 넣어도 기존 lease를 덮어쓰지 않음)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO line_lease (line_num) VALUES (:lineNum)", nativeQuery = true)
+    int insertIfAbsent(@Param("lineNum") String lineNum);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE LineLease l SET l.owner = NULL, l.expiresAt = NULL " +
+           "WHERE l.lineNum = :lineNum AND l.owner = :owner")
+    int release(@Param("lineNum") String lineNum, @Param("owner") String owner);
+}
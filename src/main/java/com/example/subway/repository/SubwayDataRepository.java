@@ -1,9 +1,26 @@
 package com.example.subway.repository;
 
 import com.example.subway.domain.SubwayData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.List;
 
 public interface SubwayDataRepository extends JpaRepository<SubwayData, Long> {
+
+    // 전체 조회 쿼리 캐시 region
+    String QUERY_CACHE_REGION = "query.subwayData";
+
+    // 그래프를 만들 때마다 전체를 읽으므로 쿼리 캐시 사용 (참조 데이터 재적재 시 ReferenceDataCache가 비움)
+    @Override
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<SubwayData> findAll();
+
     // line별로 가져오기
     // List<SubwayData> findByLinenum(String linenum);
 }
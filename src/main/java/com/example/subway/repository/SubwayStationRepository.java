@@ -1,12 +1,24 @@
 package com.example.subway.repository;
 
 import com.example.subway.domain.SubwayStations;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 public interface SubwayStationRepository extends JpaRepository<SubwayStations, String> {
+
+    // 역 조회 쿼리 캐시 region
+    String QUERY_CACHE_REGION = "query.subwayStations";
+
     // stationcode(String) 이 PK
 
     // 기존의 findByStationname 메서드 대신,
     // 해당 역이 존재하는지만 확인하는 메서드를 추가합니다.
+    // 회원가입/프로필 수정마다 호출되므로 쿼리 캐시 사용 (참조 데이터 재적재 시 ReferenceDataCache가 비움)
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     boolean existsByStationname(String stationname);
 }
@@ -0,0 +1,42 @@
+package com.example.subway.repository;
+
+import com.example.subway.domain.SyncNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * heartbeat 기록과 생존 판단은 모두 DB 시계(CURRENT_TIMESTAMP)로 합니다.
+ */
+public interface SyncNodeRepository extends JpaRepository<SyncNode, String> {
+
+    // heartbeat 시각을 DB 현재 시각으로 기록 (행이 없으면 추가)
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO sync_node (node_id, heartbeat_at) VALUES (:nodeId, CURRENT_TIMESTAMP(6)) " +
+                   "ON DUPLICATE KEY UPDATE heartbeat_at = CURRENT_TIMESTAMP(6)",
+           nativeQuery = true)
+    int beat(@Param("nodeId") String nodeId);
+
+    // 최근 ttl 안에 heartbeat한(살아있는) 노드 수
+    @Query(value = "SELECT COUNT(*) FROM sync_node " +
+                   "WHERE heartbeat_at > TIMESTAMPADD(MICROSECOND, -:ttlMicros, CURRENT_TIMESTAMP(6))",
+           nativeQuery = true)
+    long countAlive(@Param("ttlMicros") long ttlMicros);
+
+    // 나를 제외한 살아있는 노드 수
+    @Query(value = "SELECT COUNT(*) FROM sync_node WHERE node_id <> :nodeId " +
+                   "AND heartbeat_at > TIMESTAMPADD(MICROSECOND, -:ttlMicros, CURRENT_TIMESTAMP(6))",
+           nativeQuery = true)
+    long countOtherAlive(@Param("nodeId") String nodeId, @Param("ttlMicros") long ttlMicros);
+
+    // ttl 동안 heartbeat가 없던 노드 행 삭제 (다시 살아나면 beat가 새로 넣음)
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM sync_node " +
+                   "WHERE heartbeat_at <= TIMESTAMPADD(MICROSECOND, -:ttlMicros, CURRENT_TIMESTAMP(6))",
+           nativeQuery = true)
+    int deleteDead(@Param("ttlMicros") long ttlMicros);
+}
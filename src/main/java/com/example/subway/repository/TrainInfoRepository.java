@@ -4,6 +4,7 @@ package com.example.subway.repository;
 import com.example.subway.domain.TrainInfo;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +13,7 @@ public interface TrainInfoRepository extends JpaRepository<TrainInfo, Long> {
 
     // 추가: lineNum 기준으로 조회
     List<TrainInfo> findByLineNum(String lineNum);
+
+    // updateTime이 cutoff 이전인(갱신이 멈춘) 열차 조회
+    List<TrainInfo> findByLineNumAndUpdateTimeBefore(String lineNum, LocalDateTime cutoff);
 }
@@ -2,8 +2,15 @@ package com.example.subway.repository;
 
 import com.example.subway.domain.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
+
+    // 사용자들이 근무역으로 등록한 역 목록 (중복 제거)
+    @Query("SELECT DISTINCT u.workStation FROM User u WHERE u.workStation IS NOT NULL")
+    List<String> findDistinctWorkStations();
 }
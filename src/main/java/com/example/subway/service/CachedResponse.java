@@ -0,0 +1,74 @@
+package com.example.subway.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 스냅샷 버전 하나에 대해 미리 직렬화/압축해 둔 응답 본문.
+ * JSON은 만들 때 바로 직렬화하고, 바이너리 인코딩(Smile, CBOR)은 처음 요청될 때 한 번만 직렬화해 둡니다.
+ */
+@Slf4j
+@Getter
+public class CachedResponse {
+
+    // 이보다 작은 응답은 압축하지 않음
+    private static final int GZIP_MIN_BYTES = 256;
+
+    private final String etag;
+    private final byte[] body;      // JSON (UTF-8)
+    private final byte[] gzipBody;  // gzip 압축본, 압축 이득이 없으면 null
+
+    @Getter(AccessLevel.NONE)
+    private final Object value;
+    @Getter(AccessLevel.NONE)
+    private final ResponseEncoders encoders;
+    @Getter(AccessLevel.NONE)
+    private final Map<ResponseFormat, byte[]> binaryBodies = new ConcurrentHashMap<>(4);
+
+    private CachedResponse(String etag, Object value, ResponseEncoders encoders) {
+        this.etag = etag;
+        this.value = value;
+        this.encoders = encoders;
+        this.body = encoders.encode(ResponseFormat.JSON, value);
+        this.gzipBody = gzip(body);
+    }
+
+    /**
+     * 응답 DTO를 JSON으로 직렬화해 두고, 압축 이득이 있으면 gzip 본문도 함께 준비합니다.
+     */
+    public static CachedResponse of(String etag, Object value, ResponseEncoders encoders) {
+        return new CachedResponse(etag, value, encoders);
+    }
+
+    /**
+     * format 인코딩의 본문. 바이너리 인코딩은 압축하지 않습니다.
+     */
+    public byte[] getBody(ResponseFormat format) {
+        if (format == ResponseFormat.JSON) {
+            return body;
+        }
+        return binaryBodies.computeIfAbsent(format, f -> encoders.encode(f, value));
+    }
+
+    private static byte[] gzip(byte[] body) {
+        if (body.length < GZIP_MIN_BYTES) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        } catch (IOException e) {
+            log.warn("응답 압축 실패: {}", e.getMessage());
+            return null;
+        }
+        byte[] compressed = out.toByteArray();
+        return compressed.length < body.length ? compressed : null;
+    }
+}
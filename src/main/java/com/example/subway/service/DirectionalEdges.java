@@ -0,0 +1,199 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.SubwayData;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 호선 하나의 SubwayData 행을 진행 방향(0: 상행/내선, 1: 하행/외선)별 연결 목록으로 나눕니다.
+ * - upDown이 채워진 행이 있으면: 해당 행의 앞역 -> 뒷역을 그 방향의 연결로 사용
+ * - upDown이 모두 비어 있으면(dataset/2.py로 적재한 경우) 외부코드로 방향을 정합니다.
+ *   순환 구간: 외부코드가 커지는 쪽(2호선 201 시청 -> 202 을지로입구 -> ... 시계방향)이 내선(0), 반대쪽이 외선(1).
+ *   6호선 응암순환(610 -> 611 -> ... -> 615 -> 610)도 같은 규칙으로 상행(0)이 외부코드가 커지는 쪽입니다.
+ *   트리 구간(본선/지선): 기준점에서 멀어지는 쪽이 하행(1), 가까워지는 쪽이 상행(0).
+ *   기준점은 순환 구간이 있으면 순환 구간 전체, 없으면 멀어지는 쪽으로 외부코드가 커지는 연결이 가장 많은 종점
+ *   (1호선은 연천: 연천 100-3 -> 소요산 100처럼 번호가 거꾸로 붙은 연장 구간이 있어도 다수결로 정함).
+ *   분기역(구로 등)에서는 두 지선 모두 기준점에서 멀어지므로 하행 열차가 지선 사이를 되돌아 가는 경로는 나오지 않습니다.
+ *   기준점에서 거리가 같은 두 역을 잇는 연결(단순 고리가 아닌 순환 구간 등)은 방향을 정할 수 없어 양쪽 모두 허용합니다.
+ */
+final class DirectionalEdges {
+
+    static final String UP = "0";
+    static final String DOWN = "1";
+
+    private static final Pattern DIGITS = Pattern.compile("\\d+");
+
+    private DirectionalEdges() {
+    }
+
+    /**
+     * @param rows       같은 호선/노선종류의 SubwayData
+     * @param undirected 같은 행으로 만든 양방향 경로 정보 (순환 구간/종점 판별용)
+     * @return 방향 코드("0", "1") -> (앞역, 뒷역) 연결 목록
+     */
+    static Map<String, List<String[]>> split(List<SubwayData> rows, LineTopology undirected) {
+        Map<String, List<String[]>> byDirection = new LinkedHashMap<>();
+        byDirection.put(UP, new ArrayList<>());
+        byDirection.put(DOWN, new ArrayList<>());
+
+        boolean labeled = false;
+        for (SubwayData row : rows) {
+            if (UP.equals(row.getUpDown()) || DOWN.equals(row.getUpDown())) {
+                byDirection.get(row.getUpDown())
+                        .add(new String[]{row.getFrontStationname(), row.getBackStationname()});
+                labeled = true;
+            }
+        }
+        if (labeled) {
+            return byDirection;
+        }
+
+        Map<String, String> codes = new HashMap<>();
+        for (SubwayData row : rows) {
+            codes.putIfAbsent(row.getFrontStationname(), row.getFrontOutercode());
+            codes.putIfAbsent(row.getBackStationname(), row.getBackOutercode());
+        }
+
+        // 순환 구간: 외부코드가 커지는 연결이 많은 쪽을 내선/상행(0)으로
+        List<String> ring = undirected.ringSequence();
+        Set<String> ringEdges = new HashSet<>();
+        if (!ring.isEmpty()) {
+            int increasing = 0;
+            for (int i = 0; i < ring.size(); i++) {
+                String from = ring.get(i);
+                String to = ring.get((i + 1) % ring.size());
+                if (compareCodes(codes.get(from), codes.get(to)) < 0) increasing++;
+            }
+            if (increasing * 2 < ring.size()) {
+                ring = new ArrayList<>(ring);
+                Collections.reverse(ring);
+            }
+            for (int i = 0; i < ring.size(); i++) {
+                String from = ring.get(i);
+                String to = ring.get((i + 1) % ring.size());
+                byDirection.get(UP).add(new String[]{from, to});
+                byDirection.get(DOWN).add(new String[]{to, from});
+                ringEdges.add(from + "|" + to);
+                ringEdges.add(to + "|" + from);
+            }
+        }
+
+        List<String[]> treeEdges = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (SubwayData row : rows) {
+            String front = row.getFrontStationname();
+            String back = row.getBackStationname();
+            if (front.equals(back) || ringEdges.contains(front + "|" + back)) {
+                continue;
+            }
+            // 같은 연결이 양방향 두 행으로 적재되어 있으므로 한 번만
+            if (seen.add(front + "|" + back) && seen.add(back + "|" + front)) {
+                treeEdges.add(new String[]{front, back});
+            }
+        }
+        if (treeEdges.isEmpty()) {
+            return byDirection;
+        }
+
+        Map<String, Integer> depth = ring.isEmpty()
+                ? bestTerminalDepth(undirected, treeEdges, codes)
+                : depthFrom(new HashSet<>(ring), treeEdges);
+        for (String[] edge : treeEdges) {
+            Integer a = depth.get(edge[0]);
+            Integer b = depth.get(edge[1]);
+            if (a == null || b == null || a.equals(b)) {
+                byDirection.get(UP).add(new String[]{edge[0], edge[1]});
+                byDirection.get(UP).add(new String[]{edge[1], edge[0]});
+                byDirection.get(DOWN).add(new String[]{edge[0], edge[1]});
+                byDirection.get(DOWN).add(new String[]{edge[1], edge[0]});
+                continue;
+            }
+            String near = a < b ? edge[0] : edge[1];
+            String far = a < b ? edge[1] : edge[0];
+            byDirection.get(DOWN).add(new String[]{near, far});
+            byDirection.get(UP).add(new String[]{far, near});
+        }
+        return byDirection;
+    }
+
+    /**
+     * 종점마다 그 종점에서의 거리를 구해, 멀어지는 쪽으로 외부코드가 커지는 연결이 가장 많은 종점의 거리를 돌려줍니다.
+     * 동점이면 먼저 나온 종점 (입력 순서가 같으면 결과도 같음).
+     */
+    private static Map<String, Integer> bestTerminalDepth(LineTopology undirected, List<String[]> treeEdges,
+                                                          Map<String, String> codes) {
+        Map<String, Integer> best = null;
+        int bestScore = -1;
+        for (String terminal : undirected.terminals()) {
+            Map<String, Integer> depth = depthFrom(Set.of(terminal), treeEdges);
+            int score = 0;
+            for (String[] edge : treeEdges) {
+                Integer a = depth.get(edge[0]);
+                Integer b = depth.get(edge[1]);
+                if (a == null || b == null || a.equals(b)) continue;
+                String near = a < b ? edge[0] : edge[1];
+                String far = a < b ? edge[1] : edge[0];
+                if (compareCodes(codes.get(near), codes.get(far)) < 0) score++;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                best = depth;
+            }
+        }
+        return best != null ? best : Map.of();
+    }
+
+    /**
+     * roots에서 연결을 따라 간 정거장 수 (양방향).
+     */
+    private static Map<String, Integer> depthFrom(Set<String> roots, List<String[]> edges) {
+        Map<String, List<String>> adjacency = new HashMap<>();
+        for (String[] edge : edges) {
+            adjacency.computeIfAbsent(edge[0], k -> new ArrayList<>()).add(edge[1]);
+            adjacency.computeIfAbsent(edge[1], k -> new ArrayList<>()).add(edge[0]);
+        }
+        Map<String, Integer> depth = new HashMap<>();
+        Deque<String> queue = new ArrayDeque<>();
+        for (String root : roots) {
+            depth.put(root, 0);
+            queue.add(root);
+        }
+        while (!queue.isEmpty()) {
+            String cur = queue.poll();
+            for (String nb : adjacency.getOrDefault(cur, List.of())) {
+                if (!depth.containsKey(nb)) {
+                    depth.put(nb, depth.get(cur) + 1);
+                    queue.add(nb);
+                }
+            }
+        }
+        return depth;
+    }
+
+    /**
+     * 외부코드의 숫자 부분끼리 비교 ("211-2" -> [211, 2], "P313" -> [313]). 숫자가 없으면 같은 것으로 봅니다.
+     */
+    static int compareCodes(String a, String b) {
+        List<Integer> x = numbers(a);
+        List<Integer> y = numbers(b);
+        for (int i = 0; i < Math.min(x.size(), y.size()); i++) {
+            int c = Integer.compare(x.get(i), y.get(i));
+            if (c != 0) return c;
+        }
+        return x.isEmpty() || y.isEmpty() ? 0 : Integer.compare(x.size(), y.size());
+    }
+
+    private static List<Integer> numbers(String code) {
+        List<Integer> result = new ArrayList<>();
+        if (code == null) {
+            return result;
+        }
+        Matcher m = DIGITS.matcher(code);
+        while (m.find()) {
+            result.add(Integer.parseInt(m.group()));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.subway.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * 스냅샷 버전 기반 ETag.
+ * 스냅샷 버전은 프로세스마다 0부터 다시 세므로, 재시작 전이나 다른 노드에서 받은 ETag가 우연히 같은 버전이 되어
+ * 잘못된 304를 받지 않도록 프로세스 시작 시 만든 임의의 epoch를 모든 ETag에 넣습니다.
+ */
+public final class ETags {
+
+    /** 이 프로세스의 epoch (시작할 때마다, 노드마다 다름) */
+    public static final String EPOCH = newEpoch();
+
+    private ETags() {
+    }
+
+    // getSeed()는 시드 엔트로피를 기다리며 막힐 수 있으므로 이미 시드된 SecureRandom의 nextBytes 사용
+    private static String newEpoch() {
+        byte[] bytes = new byte[6];
+        new SecureRandom().nextBytes(bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /** 버전만으로 본문이 정해지는 응답의 ETag */
+    public static String of(long version) {
+        return "W/\"" + EPOCH + "-v" + version + "\"";
+    }
+
+    /**
+     * 같은 버전이라도 요청 내용(역 목록, 필터 등)에 따라 본문이 다른 응답의 ETag.
+     * 요청 내용은 SHA-256 앞 16바이트로 줄여 넣습니다.
+     */
+    public static String of(long version, Object... parts) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (Object part : parts) {
+            digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+            // 구분자: ("ab", "c")와 ("a", "bc")가 같은 값이 되지 않게
+            digest.update((byte) 0);
+        }
+        byte[] hash = digest.digest();
+        return "W/\"" + EPOCH + "-v" + version + "-" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+    }
+}
@@ -0,0 +1,277 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.LiveTrain;
+import com.google.transit.realtime.GtfsRealtime.FeedEntity;
+import com.google.transit.realtime.GtfsRealtime.FeedHeader;
+import com.google.transit.realtime.GtfsRealtime.FeedMessage;
+import com.google.transit.realtime.GtfsRealtime.TripDescriptor;
+import com.google.transit.realtime.GtfsRealtime.TripUpdate;
+import com.google.transit.realtime.GtfsRealtime.VehicleDescriptor;
+import com.google.transit.realtime.GtfsRealtime.VehiclePosition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GTFS-Realtime 피드 (열차마다 VehiclePosition + TripUpdate 하나의 FeedEntity).
+ * 스냅샷이 게시될 때 한 번 만들어 전체 피드를 바이트 배열로 인코딩해 두고, 모든 요청에 같은 배열을 그대로 내보냅니다.
+ *
+ * 차등(DIFFERENTIAL) 피드: 열차마다 내용이 마지막으로 바뀐 버전을 기록해 두고,
+ * 클라이언트가 받은 버전(since) 이후에 바뀐 열차와 사라진 열차(is_deleted)만 담아 보냅니다.
+ * since가 보관 범위(max-diff-versions)보다 오래됐으면 전체 피드를 보냅니다.
+ * 버전은 프로세스마다 0부터 다시 세므로 클라이언트에 주는 버전 토큰은 "epoch-버전" 형태(ETags.EPOCH)이고,
+ * 재시작 전이나 다른 노드에서 받은 토큰(epoch가 다름)에는 전체 피드를 보냅니다.
+ *
+ * 정적 GTFS가 없으므로 route_id는 호선명, stop_id는 역 이름, trip_id와 entity id는 "호선_열차번호"를 사용하고,
+ * stop_sequence는 열차에 처음 구한 경로에서의 위치(LiveTrain.routeOffset + 남은 경로 안의 위치)라,
+ * 동기화 때마다 지나온 역을 잘라내도 같은 역은 같은 값입니다.
+ * 도착 예정 시각은 위치 수신 시각 + 남은 정거장 수 x 정거장당 평균 소요시간이라 위치가 바뀌지 않으면 엔티티도 그대로입니다.
+ */
+@Slf4j
+@Service
+public class GtfsRealtimeService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    // 한 버전에 대해 인코딩해 둘 차등 피드(since 값) 수 상한
+    private static final int MAX_CACHED_DIFFS = 8;
+
+    private final StationDictionary stationDictionary;
+    private final long secondsPerStation;
+    private final int maxDiffVersions;
+
+    private volatile Feed current = Feed.empty();
+
+    public GtfsRealtimeService(StationDictionary stationDictionary,
+                               @Value("${myapp.next-trains.seconds-per-station:120}") long secondsPerStation,
+                               @Value("${myapp.gtfs-rt.max-diff-versions:20}") int maxDiffVersions) {
+        this.stationDictionary = stationDictionary;
+        this.secondsPerStation = secondsPerStation;
+        this.maxDiffVersions = maxDiffVersions;
+    }
+
+    /**
+     * 스냅샷이 게시된 직후 호출됩니다. 새 버전의 피드를 만들어 교체합니다.
+     */
+    public synchronized void publish(TrainSnapshot snapshot) {
+        Feed previous = current;
+        long version = snapshot.getVersion();
+
+        Map<String, FeedEntity> entities = new LinkedHashMap<>();
+        for (LiveTrain train : snapshot.getTrains()) {
+            FeedEntity entity = toEntity(train);
+            if (entity != null) {
+                entities.putIfAbsent(entity.getId(), entity);
+            }
+        }
+
+        // 보관 범위 밖의 변경 기록은 버리고, 그보다 오래된 since에는 전체 피드를 보냄
+        long horizon = Math.max(previous.horizon, version - maxDiffVersions);
+        Map<String, Long> changedAt = new HashMap<>();
+        for (FeedEntity entity : entities.values()) {
+            FeedEntity old = previous.entities.get(entity.getId());
+            changedAt.put(entity.getId(), old != null && old.equals(entity)
+                    ? previous.changedAt.get(entity.getId()) : version);
+        }
+        Map<String, Long> deletedAt = new HashMap<>();
+        previous.deletedAt.forEach((id, v) -> {
+            if (v > horizon && !entities.containsKey(id)) {
+                deletedAt.put(id, v);
+            }
+        });
+        for (String id : previous.entities.keySet()) {
+            if (!entities.containsKey(id)) {
+                deletedAt.put(id, version);
+            }
+        }
+
+        long timestamp = snapshot.getCreatedAt().atZone(ZONE).toEpochSecond();
+        byte[] full = FeedMessage.newBuilder()
+                .setHeader(header(FeedHeader.Incrementality.FULL_DATASET, timestamp))
+                .addAllEntity(entities.values())
+                .build()
+                .toByteArray();
+        current = new Feed(version, timestamp, horizon, entities, changedAt, deletedAt, full);
+        log.debug("[GTFS-RT] version {}: 열차 {}대, 전체 피드 {} bytes", version, entities.size(), full.length);
+    }
+
+    /**
+     * 현재 버전의 전체 피드 (FULL_DATASET).
+     */
+    public FeedBody getFull() {
+        Feed feed = current;
+        return new FeedBody(feed.version, true, feed.full);
+    }
+
+    /**
+     * since 토큰(FeedBody.token) 이후의 차등 피드.
+     * 다른 프로세스의 토큰이거나, 형식이 틀렸거나, 보관 범위보다 오래됐거나 미래 버전이면 전체 피드를 돌려줍니다.
+     */
+    public FeedBody getDifferential(String sinceToken) {
+        Feed feed = current;
+        long since = parseToken(sinceToken);
+        if (since < feed.horizon || since > feed.version) {
+            return new FeedBody(feed.version, true, feed.full);
+        }
+        byte[] body = feed.diffs.get(since);
+        if (body == null) {
+            body = encodeDifferential(feed, since);
+            if (feed.diffs.size() < MAX_CACHED_DIFFS) {
+                feed.diffs.putIfAbsent(since, body);
+            }
+        }
+        return new FeedBody(feed.version, false, body);
+    }
+
+    // 이 프로세스가 발급한 토큰이 아니면 -1
+    private static long parseToken(String token) {
+        String prefix = ETags.EPOCH + "-";
+        if (token == null || !token.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(token.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static byte[] encodeDifferential(Feed feed, long since) {
+        FeedMessage.Builder message = FeedMessage.newBuilder()
+                .setHeader(header(FeedHeader.Incrementality.DIFFERENTIAL, feed.timestamp));
+        feed.changedAt.forEach((id, v) -> {
+            if (v > since) {
+                message.addEntity(feed.entities.get(id));
+            }
+        });
+        feed.deletedAt.forEach((id, v) -> {
+            if (v > since) {
+                message.addEntity(FeedEntity.newBuilder().setId(id).setIsDeleted(true));
+            }
+        });
+        return message.build().toByteArray();
+    }
+
+    private static FeedHeader header(FeedHeader.Incrementality incrementality, long timestamp) {
+        return FeedHeader.newBuilder()
+                .setGtfsRealtimeVersion("2.0")
+                .setIncrementality(incrementality)
+                .setTimestamp(timestamp)
+                .build();
+    }
+
+    /**
+     * 열차 하나를 FeedEntity로 변환합니다. 현재역이 경로에 없으면(경로 탐색 실패 등) null.
+     */
+    private FeedEntity toEntity(LiveTrain train) {
+        int[] route = train.getRoute();
+        int currIndex = train.indexOf(train.getCurrentStationId());
+        if (currIndex == -1) {
+            return null;
+        }
+
+        TripDescriptor trip = TripDescriptor.newBuilder()
+                .setTripId(train.getLineNum() + "_" + train.getTrainNo())
+                .setRouteId(train.getLineNum())
+                .setDirectionId(Integer.parseInt(train.direction().code()))
+                .setScheduleRelationship(TripDescriptor.ScheduleRelationship.UNSCHEDULED)
+                .build();
+        VehicleDescriptor vehicle = VehicleDescriptor.newBuilder()
+                .setId(train.getTrainNo())
+                .setLabel(train.getTrainNo() + " " + stationDictionary.nameOf(train.getEndStationId()) + "행")
+                .build();
+        LocalDateTime observed = train.recptnDateTime() != null ? train.recptnDateTime() : train.updateDateTime();
+        long observedAt = observed == null ? 0 : observed.atZone(ZONE).toEpochSecond();
+
+        // 열차상태: 0 진입 / 1 도착 / 2 출발(다음 역으로 이동 중) / 3 전역출발(현재역으로 이동 중)
+        VehiclePosition.VehicleStopStatus status;
+        int stopIndex = currIndex;
+        switch (train.status()) {
+            case APPROACH -> status = VehiclePosition.VehicleStopStatus.INCOMING_AT;
+            case ARRIVE -> status = VehiclePosition.VehicleStopStatus.STOPPED_AT;
+            case DEPART -> {
+                status = VehiclePosition.VehicleStopStatus.IN_TRANSIT_TO;
+                stopIndex = Math.min(currIndex + 1, route.length - 1);
+            }
+            default -> status = VehiclePosition.VehicleStopStatus.IN_TRANSIT_TO;
+        }
+        VehiclePosition.Builder position = VehiclePosition.newBuilder()
+                .setTrip(trip)
+                .setVehicle(vehicle)
+                .setStopId(stationDictionary.nameOf(route[stopIndex]))
+                .setCurrentStopSequence(train.getRouteOffset() + stopIndex)
+                .setCurrentStatus(status);
+        if (observedAt > 0) {
+            position.setTimestamp(observedAt);
+        }
+
+        TripUpdate.Builder tripUpdate = TripUpdate.newBuilder()
+                .setTrip(trip)
+                .setVehicle(vehicle);
+        for (int i = stopIndex; i < route.length; i++) {
+            TripUpdate.StopTimeUpdate.Builder stop = TripUpdate.StopTimeUpdate.newBuilder()
+                    .setStopSequence(train.getRouteOffset() + i)
+                    .setStopId(stationDictionary.nameOf(route[i]));
+            if (observedAt > 0) {
+                stop.setArrival(TripUpdate.StopTimeEvent.newBuilder()
+                        .setTime(observedAt + (i - currIndex) * secondsPerStation));
+            }
+            tripUpdate.addStopTimeUpdate(stop);
+        }
+        if (observedAt > 0) {
+            tripUpdate.setTimestamp(observedAt);
+        }
+
+        return FeedEntity.newBuilder()
+                .setId(trip.getTripId())
+                .setVehicle(position)
+                .setTripUpdate(tripUpdate)
+                .build();
+    }
+
+    /**
+     * 인코딩된 피드와 그 버전. full이 false면 DIFFERENTIAL 피드입니다.
+     */
+    public record FeedBody(long version, boolean full, byte[] body) {
+
+        /** 다음 요청의 since로 넘길 버전 토큰 */
+        public String token() {
+            return ETags.EPOCH + "-" + version;
+        }
+    }
+
+    // 버전 하나의 피드 상태와 인코딩 결과
+    private static final class Feed {
+        private final long version;
+        private final long timestamp;
+        private final long horizon;
+        private final Map<String, FeedEntity> entities;
+        private final Map<String, Long> changedAt;
+        private final Map<String, Long> deletedAt;
+        private final byte[] full;
+        private final Map<Long, byte[]> diffs = new ConcurrentHashMap<>();
+
+        private Feed(long version, long timestamp, long horizon, Map<String, FeedEntity> entities,
+                     Map<String, Long> changedAt, Map<String, Long> deletedAt, byte[] full) {
+            this.version = version;
+            this.timestamp = timestamp;
+            this.horizon = horizon;
+            this.entities = entities;
+            this.changedAt = changedAt;
+            this.deletedAt = deletedAt;
+            this.full = full;
+        }
+
+        private static Feed empty() {
+            return new Feed(0, 0, 0, Map.of(), Map.of(), Map.of(),
+                    FeedMessage.newBuilder()
+                            .setHeader(header(FeedHeader.Incrementality.FULL_DATASET, 0))
+                            .build()
+                            .toByteArray());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.example.subway.service;
+
+import com.example.subway.dto.HeadwayResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 동기화 과정에서 관측된 열차 도착으로 역/방향별 배차간격을 실시간 집계합니다.
+ * (호선, 역, 상하행)마다 고정 크기 HeadwayWindow 하나만 두므로,
+ * 메모리는 노선망 크기에 비례하고 도착 한 건당 비용은 일정합니다.
+ */
+@Slf4j
+@Service
+public class HeadwayAnalyticsService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    private final int windowSize;
+    private final double gapFactor;
+    private final int minSamples;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Station> stations = new ConcurrentHashMap<>();
+    private final Map<String, Timer> lineTimers = new ConcurrentHashMap<>();
+    private final Counter arrivalCounter;
+
+    public HeadwayAnalyticsService(MeterRegistry meterRegistry,
+                                   @Value("${myapp.headway.window-size:16}") int windowSize,
+                                   @Value("${myapp.headway.gap-factor:2.0}") double gapFactor,
+                                   @Value("${myapp.headway.min-samples:3}") int minSamples) {
+        this.meterRegistry = meterRegistry;
+        this.windowSize = windowSize;
+        this.gapFactor = gapFactor;
+        this.minSamples = minSamples;
+
+        this.arrivalCounter = Counter.builder("subway.headway.arrivals")
+                .description("배차간격 집계에 반영된 열차 도착 수")
+                .register(meterRegistry);
+        Gauge.builder("subway.headway.tracked", stations, Map::size)
+                .description("배차간격을 집계 중인 (호선, 역, 방향) 수")
+                .register(meterRegistry);
+        Gauge.builder("subway.headway.gaps", this, HeadwayAnalyticsService::countGaps)
+                .description("현재 운행 간격이 벌어진 (호선, 역, 방향) 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 열차가 (lineNum, station, upDown)에 도착했음을 기록합니다.
+     */
+    public void recordArrival(String lineNum, String station, String upDown, long arrivalMillis) {
+        if (station == null || upDown == null) {
+            return;
+        }
+        Station entry = stations.computeIfAbsent(key(lineNum, station, upDown),
+                k -> new Station(lineNum, station, upDown, new HeadwayWindow(windowSize)));
+        long headway = entry.window.record(arrivalMillis);
+        arrivalCounter.increment();
+        if (headway > 0) {
+            lineTimers.computeIfAbsent(lineNum, l -> Timer.builder("subway.headway")
+                            .description("관측된 배차간격")
+                            .tag("line", l)
+                            .publishPercentiles(0.5, 0.9)
+                            .register(meterRegistry))
+                    .record(Duration.ofMillis(headway));
+        }
+    }
+
+    /**
+     * 조건(호선/역, null이면 전체)에 맞는 배차간격 현황.
+     */
+    public List<HeadwayResponse> getHeadways(String lineNum, String station) {
+        long now = System.currentTimeMillis();
+        List<HeadwayResponse> result = new ArrayList<>();
+        for (Station entry : stations.values()) {
+            if (lineNum != null && !lineNum.equals(entry.lineNum)) continue;
+            if (station != null && !station.equals(entry.station)) continue;
+            result.add(toResponse(entry, now));
+        }
+        result.sort(Comparator.comparing(HeadwayResponse::getLineNum)
+                .thenComparing(HeadwayResponse::getStation)
+                .thenComparing(HeadwayResponse::getUpDown));
+        return result;
+    }
+
+    /**
+     * 마지막 도착 이후 경과 시간이 중앙 배차간격의 gap-factor 배를 넘긴 (호선, 역, 방향) 목록.
+     */
+    public List<HeadwayResponse> getGaps() {
+        long now = System.currentTimeMillis();
+        List<HeadwayResponse> result = new ArrayList<>();
+        for (Station entry : stations.values()) {
+            HeadwayResponse response = toResponse(entry, now);
+            if (response.isGap()) {
+                result.add(response);
+            }
+        }
+        result.sort(Comparator.comparingLong(HeadwayResponse::getCurrentGapSeconds).reversed());
+        return result;
+    }
+
+    /**
+     * 운행 간격이 벌어진 (호선, 역, 방향) 수. 모니터링 수집마다 불리므로 응답 객체를 만들거나 정렬하지 않습니다.
+     */
+    private double countGaps() {
+        long now = System.currentTimeMillis();
+        int gaps = 0;
+        for (Station entry : stations.values()) {
+            if (entry.window.isGap(now, gapFactor, minSamples)) {
+                gaps++;
+            }
+        }
+        return gaps;
+    }
+
+    private HeadwayResponse toResponse(Station entry, long now) {
+        HeadwayWindow.Stats stats = entry.window.stats();
+        long currentGap = Math.max(0, now - stats.lastArrival());
+        boolean gap = stats.samples() >= minSamples && currentGap > stats.p50() * gapFactor;
+        return new HeadwayResponse(
+                entry.lineNum,
+                entry.station,
+                entry.upDown,
+                LocalDateTime.ofInstant(Instant.ofEpochMilli(stats.lastArrival()), ZONE),
+                stats.samples(),
+                stats.p50() / 1000,
+                stats.p90() / 1000,
+                stats.max() / 1000,
+                currentGap / 1000,
+                gap);
+    }
+
+    private static String key(String lineNum, String station, String upDown) {
+        return lineNum + "|" + station + "|" + upDown;
+    }
+
+    private static final class Station {
+        private final String lineNum;
+        private final String station;
+        private final String upDown;
+        private final HeadwayWindow window;
+
+        private Station(String lineNum, String station, String upDown, HeadwayWindow window) {
+            this.lineNum = lineNum;
+            this.station = station;
+            this.upDown = upDown;
+            this.window = window;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.subway.service;
+
+import java.util.Arrays;
+
+/**
+ * (호선, 역, 상하행) 하나에 대한 최근 도착 간격 링버퍼.
+ * 배차간격은 별도의 정렬 배열로 함께 유지하여, 도착 한 건당 O(capacity)의 고정 비용으로
+ * 백분위수를 바로 읽을 수 있습니다.
+ */
+final class HeadwayWindow {
+
+    private final long[] headways;   // 배차간격 링버퍼 (millis, 도착 순서)
+    private final long[] sorted;     // 현재 창의 배차간격 정렬본 (앞쪽 count개만 유효)
+    private int count;
+    private int head;                // 다음에 기록할 headways 위치
+    private long lastArrival;        // 마지막 도착 시각 (epoch millis, 0이면 없음)
+
+    HeadwayWindow(int capacity) {
+        this.headways = new long[capacity];
+        this.sorted = new long[capacity];
+    }
+
+    /**
+     * 도착 시각을 기록하고, 새로 계산된 배차간격(millis)을 반환합니다. 첫 도착이면 0.
+     */
+    synchronized long record(long arrivalMillis) {
+        long headway = 0;
+        if (lastArrival > 0) {
+            headway = arrivalMillis - lastArrival;
+            if (headway <= 0) {
+                return 0; // 순서가 뒤바뀐 중복 수신은 무시
+            }
+            if (count == headways.length) {
+                removeSorted(headways[head]);
+            }
+            headways[head] = headway;
+            head = (head + 1) % headways.length;
+            insertSorted(headway);
+        }
+        lastArrival = arrivalMillis;
+        return headway;
+    }
+
+    /**
+     * 현재 창의 통계를 한 번의 잠금으로 읽습니다 (값들이 같은 시점 기준).
+     */
+    synchronized Stats stats() {
+        return new Stats(lastArrival, count, percentile(50), percentile(90), count == 0 ? 0 : sorted[count - 1]);
+    }
+
+    /**
+     * 마지막 도착 이후 now까지 경과 시간이 중앙 배차간격의 gapFactor 배를 넘었는지 (표본이 minSamples 미만이면 false).
+     * 모니터링 수집마다 모든 창에 대해 부르므로 객체를 만들지 않습니다.
+     */
+    synchronized boolean isGap(long now, double gapFactor, int minSamples) {
+        return count >= minSamples && Math.max(0, now - lastArrival) > percentile(50) * gapFactor;
+    }
+
+    // 0~100 사이 백분위수 (nearest-rank). 표본이 없으면 0. 잠금을 잡은 상태에서만 호출
+    private long percentile(int p) {
+        if (count == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * count);
+        return sorted[Math.max(0, Math.min(count - 1, rank - 1))];
+    }
+
+    private void insertSorted(long value) {
+        int idx = Arrays.binarySearch(sorted, 0, count, value);
+        if (idx < 0) idx = -idx - 1;
+        System.arraycopy(sorted, idx, sorted, idx + 1, count - idx);
+        sorted[idx] = value;
+        count++;
+    }
+
+    private void removeSorted(long value) {
+        int idx = Arrays.binarySearch(sorted, 0, count, value);
+        if (idx < 0) {
+            return;
+        }
+        System.arraycopy(sorted, idx + 1, sorted, idx, count - idx - 1);
+        count--;
+    }
+
+    /**
+     * 창 하나의 통계 (millis). lastArrival이 0이면 도착 기록 없음.
+     */
+    record Stats(long lastArrival, int samples, long p50, long p90, long max) {
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.subway.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 호선별 외부 API 호출 circuit breaker.
+ * - CLOSED: 정상 호출. failure-threshold번 연속 실패하면 OPEN
+ * - OPEN: retryAt까지 호출하지 않음. 대기 시간은 실패가 이어질수록 2배씩(최대 max-backoff) 늘고 jitter를 섞음
+ * - HALF_OPEN: retryAt 이후 한 번 시험 호출, 성공하면 CLOSED, 실패하면 다시 OPEN
+ */
+@Slf4j
+@Service
+public class LineCircuitBreakerService {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long baseBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    public LineCircuitBreakerService(MeterRegistry meterRegistry,
+                                     @Value("${myapp.sync.breaker.failure-threshold:3}") int failureThreshold,
+                                     @Value("${myapp.sync.breaker.base-backoff:30000}") long baseBackoffMillis,
+                                     @Value("${myapp.sync.breaker.max-backoff:600000}") long maxBackoffMillis) {
+        this.failureThreshold = failureThreshold;
+        this.baseBackoffMillis = baseBackoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        Gauge.builder("subway.sync.breakers.open", breakers,
+                        m -> m.values().stream().filter(b -> b.state != State.CLOSED).count())
+                .description("호출이 차단된(OPEN/HALF_OPEN) 호선 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 이번 주기에 lineNum의 API를 호출해도 되는지 여부. OPEN 상태에서 retryAt이 지났으면 HALF_OPEN으로 전환합니다.
+     */
+    public boolean allowRequest(String lineNum) {
+        Breaker b = breaker(lineNum);
+        synchronized (b) {
+            if (b.state == State.OPEN && System.currentTimeMillis() >= b.retryAt) {
+                b.state = State.HALF_OPEN;
+                log.info("[BREAKER] {}: 재시도 (HALF_OPEN)", lineNum);
+            }
+            return b.state != State.OPEN;
+        }
+    }
+
+    public void recordSuccess(String lineNum) {
+        Breaker b = breaker(lineNum);
+        synchronized (b) {
+            if (b.state != State.CLOSED) {
+                log.info("[BREAKER] {}: 복구됨 (연속 실패 {}회 후 CLOSED)", lineNum, b.consecutiveFailures);
+            }
+            b.state = State.CLOSED;
+            b.consecutiveFailures = 0;
+            b.lastSuccessAt = System.currentTimeMillis();
+        }
+    }
+
+    public void recordFailure(String lineNum) {
+        Breaker b = breaker(lineNum);
+        synchronized (b) {
+            b.consecutiveFailures++;
+            if (b.state == State.HALF_OPEN || b.consecutiveFailures >= failureThreshold) {
+                int exponent = Math.min(20, Math.max(0, b.consecutiveFailures - failureThreshold));
+                long backoff = Math.min(maxBackoffMillis, baseBackoffMillis << exponent);
+                // full jitter의 절반 구간: [backoff/2, backoff)
+                long jittered = backoff / 2 + ThreadLocalRandom.current().nextLong(Math.max(1, backoff / 2));
+                b.state = State.OPEN;
+                b.retryAt = System.currentTimeMillis() + jittered;
+                log.warn("[BREAKER] {}: 연속 실패 {}회, {}ms 동안 호출 중단 (OPEN)",
+                        lineNum, b.consecutiveFailures, jittered);
+            }
+        }
+    }
+
+    public State getState(String lineNum) {
+        Breaker b = breaker(lineNum);
+        synchronized (b) {
+            return b.state;
+        }
+    }
+
+    public int getConsecutiveFailures(String lineNum) {
+        Breaker b = breaker(lineNum);
+        synchronized (b) {
+            return b.consecutiveFailures;
+        }
+    }
+
+    // OPEN 상태일 때 다음 시도 시각 (그 외에는 null)
+    public LocalDateTime getRetryAt(String lineNum) {
+        Breaker b = breaker(lineNum);
+        synchronized (b) {
+            return b.state == State.OPEN ? toLocal(b.retryAt) : null;
+        }
+    }
+
+    // 이 노드에서 마지막으로 정상 응답을 받은 시각 (없으면 null)
+    public LocalDateTime getLastSuccessAt(String lineNum) {
+        Breaker b = breaker(lineNum);
+        synchronized (b) {
+            return b.lastSuccessAt == 0 ? null : toLocal(b.lastSuccessAt);
+        }
+    }
+
+    private Breaker breaker(String lineNum) {
+        return breakers.computeIfAbsent(lineNum, k -> new Breaker());
+    }
+
+    private static LocalDateTime toLocal(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    private static final class Breaker {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long retryAt;
+        private long lastSuccessAt;
+    }
+}
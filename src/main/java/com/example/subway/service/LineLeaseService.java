@@ -0,0 +1,200 @@
+package com.example.subway.service;
+
+import com.example.subway.config.DataSourceRoute;
+import com.example.subway.domain.LineLease;
+import com.example.subway.repository.LineLeaseRepository;
+import com.example.subway.repository.SyncNodeRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 여러 인스턴스가 같은 DB를 공유할 때 호선별 동기화 담당을 line_lease 테이블로 나눕니다.
+ * - 각 노드는 heartbeat 주기마다 sync_node에 생존을 기록하고, 가진 lease를 갱신합니다.
+ * - 살아있는 노드 수로 나눈 몫(올림)만큼만 lease를 보유하고, 넘치면 반납, 모자라면 비었거나 만료된 lease를 가져갑니다.
+ * - 노드가 죽으면 lease-ttl 이후 다른 노드가 그 호선을 가져갑니다.
+ * - 만료 시각과 생존 판단은 DB 시계로 계산합니다 (노드 간 시계 차이와 무관).
+ * - 로컬에서는 DB가 알려준 남은 시간보다 lease-safety-margin 먼저 만료된 것으로 보고(System.nanoTime 기준),
+ *   동기화 제출 시와 DB 반영 직전에 확인합니다.
+ *   (heartbeat가 멈춘 노드가 다른 노드가 가져간 호선에 늦게 쓰지 않도록. 여유는 호선 하나의 반영 시간보다 커야 함)
+ * 담당이 아닌 호선은 담당 노드가 DB에 쓴 결과를 스냅샷 게시 때 함께 읽습니다.
+ * lease/노드 조회는 모두 PRIMARY 풀에서 합니다 (복제 지연된 replica로 만료/생존을 판단하지 않도록).
+ *
+ * myapp.sync.sharding-enabled=false이면 이 노드가 모든 호선을 동기화합니다.
+ */
+@Slf4j
+@Service
+public class LineLeaseService {
+
+    private final LineLeaseRepository lineLeaseRepository;
+    private final SyncNodeRepository syncNodeRepository;
+
+    private final boolean enabled;
+    private final String nodeId;
+    private final long leaseTtlMillis;
+    private final long safetyMarginMillis;
+
+    // 보유 중인 lease와 로컬 기준 만료 시각(System.nanoTime) = 갱신 시작 시각 + DB 기준 남은 시간 - safety margin
+    // (DB 갱신에 실패하면 이 시각 이후로는 동기화하지 않음)
+    private final Map<String, Long> owned = new ConcurrentHashMap<>();
+
+    public LineLeaseService(LineLeaseRepository lineLeaseRepository,
+                            SyncNodeRepository syncNodeRepository,
+                            @Value("${myapp.sync.sharding-enabled:false}") boolean enabled,
+                            @Value("${myapp.sync.node-id:}") String nodeId,
+                            @Value("${myapp.sync.lease-ttl:90000}") long leaseTtlMillis,
+                            @Value("${myapp.sync.lease-safety-margin:15000}") long safetyMarginMillis) {
+        if (safetyMarginMillis < 0 || safetyMarginMillis >= leaseTtlMillis) {
+            throw new IllegalStateException("lease-safety-margin(" + safetyMarginMillis
+                    + "ms)은 0 이상, lease-ttl(" + leaseTtlMillis + "ms) 미만이어야 합니다.");
+        }
+        this.lineLeaseRepository = lineLeaseRepository;
+        this.syncNodeRepository = syncNodeRepository;
+        this.enabled = enabled;
+        this.nodeId = nodeId.isBlank() ? UUID.randomUUID().toString() : nodeId;
+        this.leaseTtlMillis = leaseTtlMillis;
+        this.safetyMarginMillis = safetyMarginMillis;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getLeaseTtlMillis() {
+        return leaseTtlMillis;
+    }
+
+    /**
+     * 이 노드가 lineNum(DB 호선명)을 동기화해야 하는지 여부. 로컬 만료 시각(DB 만료 - safety margin) 기준입니다.
+     */
+    public boolean isOwner(String lineNum) {
+        if (!enabled) {
+            return true;
+        }
+        Long deadline = owned.get(lineNum);
+        return deadline != null && deadline - System.nanoTime() > 0;
+    }
+
+    public Set<String> getOwnedLines() {
+        return Collections.unmodifiableSet(new TreeSet<>(owned.keySet()));
+    }
+
+    /**
+     * 나 말고 살아있는 노드가 있는지 여부 (시작 시 공유 데이터를 지워도 되는지 판단용).
+     */
+    public boolean hasOtherLiveNodes() {
+        if (!enabled) {
+            return false;
+        }
+        return DataSourceRoute.PRIMARY.get(() -> syncNodeRepository.countOtherAlive(nodeId, leaseTtlMillis * 1_000) > 0);
+    }
+
+    @Scheduled(fixedDelayString = "${myapp.sync.heartbeat-interval:10000}")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            DataSourceRoute.PRIMARY.run(this::renewLeases);
+        } catch (Exception e) {
+            // DB 장애 시에는 로컬 만료 시각이 지나면 자연스럽게 동기화를 멈춤
+            log.error("[LEASE] heartbeat 실패: {}", e.getMessage(), e);
+        }
+    }
+
+    private void renewLeases() {
+        // DB 갱신 전에 잰 시각이라, 여기에 DB 기준 남은 시간을 더한 값은 실제 DB 만료보다 이르거나 같음
+        long started = System.nanoTime();
+        long ttlMicros = leaseTtlMillis * 1_000;
+
+        syncNodeRepository.beat(nodeId);
+        syncNodeRepository.deleteDead(ttlMicros);
+
+        ensureLeaseRows();
+
+        long liveNodes = Math.max(1, syncNodeRepository.countAlive(ttlMicros));
+        int share = (int) Math.ceil((double) SyncLines.ALL.size() / liveNodes);
+
+        // 1) 보유 중인 lease 갱신 (다른 노드가 만료 후 가져갔다면 놓음)
+        Set<String> held = new TreeSet<>();
+        for (String lineNum : new ArrayList<>(owned.keySet())) {
+            if (lineLeaseRepository.tryAcquire(lineNum, nodeId, ttlMicros) == 1) {
+                held.add(lineNum);
+            } else {
+                owned.remove(lineNum);
+                log.warn("[LEASE] {}: lease를 다른 노드에 빼앗겼습니다.", lineNum);
+            }
+        }
+
+        // 2) 몫보다 많이 가지고 있으면 반납 (새 노드가 가져갈 수 있도록)
+        Iterator<String> extra = new TreeSet<>(held).descendingIterator();
+        while (held.size() > share && extra.hasNext()) {
+            String lineNum = extra.next();
+            lineLeaseRepository.release(lineNum, nodeId);
+            held.remove(lineNum);
+            owned.remove(lineNum);
+            log.info("[LEASE] {}: 분배량({}) 초과로 반납", lineNum, share);
+        }
+
+        // 3) 모자라면 비었거나 (DB 시각 기준) 만료된 lease를 가져감
+        if (held.size() < share) {
+            for (String lineNum : lineLeaseRepository.findFreeLineNums()) {
+                if (held.size() >= share) {
+                    break;
+                }
+                if (!held.contains(lineNum) && lineLeaseRepository.tryAcquire(lineNum, nodeId, ttlMicros) == 1) {
+                    held.add(lineNum);
+                    // 남은 시간을 읽기 전까지는 담당이 아닌 것으로 봄 (다음 heartbeat에서도 갱신 대상이 되도록 등록)
+                    owned.putIfAbsent(lineNum, started);
+                    log.info("[LEASE] {}: 동기화 담당으로 lease 획득 (node={})", lineNum, nodeId);
+                }
+            }
+        }
+
+        // 4) DB가 계산한 만료까지 남은 시간으로 로컬 만료 시각을 정함
+        for (LineLeaseRepository.Remaining lease : lineLeaseRepository.findRemaining(nodeId)) {
+            if (held.contains(lease.getLineNum()) && lease.getRemainingMicros() != null) {
+                owned.put(lease.getLineNum(),
+                        started + (lease.getRemainingMicros() - safetyMarginMillis * 1_000) * 1_000);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        if (!enabled) {
+            return;
+        }
+        for (String lineNum : owned.keySet()) {
+            try {
+                DataSourceRoute.PRIMARY.run(() -> lineLeaseRepository.release(lineNum, nodeId));
+            } catch (Exception e) {
+                log.warn("[LEASE] {} 반납 실패: {}", lineNum, e.getMessage());
+            }
+        }
+        owned.clear();
+    }
+
+    // 동기화 대상 호선마다 lease 행이 있도록 보장 (동시에 여러 노드가 넣으면 하나만 성공)
+    private void ensureLeaseRows() {
+        Set<String> existing = new HashSet<>();
+        for (LineLease lease : lineLeaseRepository.findAll()) {
+            existing.add(lease.getLineNum());
+        }
+        for (String lineNum : SyncLines.ALL.values()) {
+            if (existing.contains(lineNum)) {
+                continue;
+            }
+            lineLeaseRepository.insertIfAbsent(lineNum);
+        }
+    }
+}
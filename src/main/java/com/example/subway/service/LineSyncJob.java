@@ -0,0 +1,105 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.TrainInfo;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 동기화 주기 하나에서 호선 하나가 파이프라인 단계를 거치며 채워지는 작업 상태.
+ * 단계 사이에서는 큐를 통해 한 스레드에서 다음 스레드로 넘어가므로 별도 동기화 없이 사용합니다.
+ */
+final class LineSyncJob {
+
+    final String apiLineName;
+    final String lineNum;
+    // apply 단계가 끝나면 countDown (스냅샷 게시 전에 모든 호선의 DB 반영을 기다림)
+    final CountDownLatch applied;
+    // 서킷 브레이커가 열려 있어 API를 호출하지 않는 호선 (오래된 열차 정리만 함)
+    final boolean skipped;
+    // 제출 시각 (System.nanoTime, in-flight 만료 판단용)
+    final long submittedAt = System.nanoTime();
+    // apply가 끝났거나 실패해서 in-flight 표시와 applied를 정리했는지
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    // fetch
+    String contentType;
+    byte[] payload;
+
+    // parse: API 정상 응답 여부 (null이면 아직 모름), 응답 행
+    Boolean success;
+    final List<Row> rows = new ArrayList<>();
+
+    // resolve / route
+    final List<Change> changes = new ArrayList<>();
+    final List<TrainInfo> removed = new ArrayList<>();
+
+    // apply: notify 단계에서 log.json에 남길 이벤트
+    final List<Event> events = new ArrayList<>();
+
+    // 어느 단계에서든 예외가 나면 이후 단계는 건너뛰고 apply에서 실패로 기록
+    Exception failure;
+
+    LineSyncJob(String apiLineName, String lineNum, CountDownLatch applied, boolean skipped) {
+        this.apiLineName = apiLineName;
+        this.lineNum = lineNum;
+        this.applied = applied;
+        this.skipped = skipped;
+    }
+
+    /** API를 호출했고 지금까지 실패하지 않은 작업 */
+    boolean active() {
+        return !skipped && failure == null && !Boolean.FALSE.equals(success);
+    }
+
+    void fail(Exception e) {
+        if (failure == null) {
+            failure = e;
+        }
+    }
+
+    /** 처음 호출될 때만 true (apply 단계 정상 종료와 오류 처리에서 중복 정리하지 않도록) */
+    boolean markReleased() {
+        return released.compareAndSet(false, true);
+    }
+
+    /** realtimePosition 응답 한 행 (현재역/종착역은 소괄호 제거 후) */
+    record Row(String subwayId, String statnId, String trainNo, String lastRecptnDt, String recptnDt,
+               String upDown, String statnTid, String currStatn, String endStatn, String trainSttus,
+               String directAt, String lstcarAt) {
+    }
+
+    /**
+     * 응답 행을 반영한 열차 엔티티와 이전 상태 대비 변화.
+     * needsRoute면 route 단계에서 경로를 새로 구하고, 아니면 기존 경로에서 지나온 역을 잘라냅니다.
+     */
+    static final class Change {
+        final TrainInfo train;
+        final boolean created;
+        final boolean arrived;
+        final boolean moved;
+        final boolean needsRoute;
+        // 갱신 전 현재역과 경로 (막차 알림에서 이전 위치의 남은 정거장 수 계산용, 새 열차면 null)
+        final String previousStation;
+        final List<String> previousPath;
+        List<String> path;
+
+        Change(TrainInfo train, boolean created, boolean arrived, boolean moved, boolean needsRoute,
+               String previousStation, List<String> path) {
+            this.train = train;
+            this.created = created;
+            this.arrived = arrived;
+            this.moved = moved;
+            this.needsRoute = needsRoute;
+            this.previousStation = previousStation;
+            this.previousPath = path;
+            this.path = path;
+        }
+    }
+
+    record Event(String action, TrainInfo train, LocalDateTime timestamp) {
+    }
+}
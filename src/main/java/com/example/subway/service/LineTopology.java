@@ -0,0 +1,326 @@
+package com.example.subway.service;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * 호선 하나(일반 또는 급행 연결)의 미리 계산된 경로 정보.
+ * - 역 이름 <-> 0부터 시작하는 로컬 인덱스
+ * - hops: n x n 정거장 수 행렬 (short, 도달 불가 -1)
+ * - next: n x n 다음 역 행렬 (from에서 to로 가는 최단 경로의 다음 역 인덱스, short)
+ * - branches: 종점과 종점을 잇는 정차역 순서 (지선/분기마다 하나, 양방향 그래프만)
+ * - ring: 순환 구간(2호선 본선, 6호선 응암순환)에 속한 역 (양방향 그래프만)
+ * 방향 그래프(directed)로 만들면 한 진행 방향(상행/하행)의 연결만 따라가는 경로가 됩니다.
+ * 생성 이후에는 변경되지 않으므로 여러 스레드에서 동시에 읽어도 됩니다.
+ */
+public final class LineTopology {
+
+    public static final int UNREACHABLE = -1;
+
+    private final String lineNum;
+    private final boolean directed;
+    private final String[] names;
+    private final Map<String, Integer> index;
+    private final int[][] adj;
+    private final short[] hops;
+    private final short[] next;
+    private final int[] terminals;
+    private final List<int[]> branches;
+    private final short[] branchIndex;   // n x n, from -> to 경로를 포함하는 branches 인덱스 (없으면 -1)
+    private final boolean[] onRing;
+
+    private LineTopology(String lineNum, boolean directed, String[] names, Map<String, Integer> index, int[][] adj,
+                         short[] hops, short[] next, int[] terminals, List<int[]> branches, short[] branchIndex,
+                         boolean[] onRing) {
+        this.lineNum = lineNum;
+        this.directed = directed;
+        this.names = names;
+        this.index = index;
+        this.adj = adj;
+        this.hops = hops;
+        this.next = next;
+        this.terminals = terminals;
+        this.branches = branches;
+        this.branchIndex = branchIndex;
+        this.onRing = onRing;
+    }
+
+    /**
+     * (앞역, 뒷역) 연결 목록으로 경로 정보를 만듭니다. 연결은 양방향으로 취급합니다.
+     */
+    public static LineTopology build(String lineNum, List<String[]> edges) {
+        return build(lineNum, edges, false);
+    }
+
+    /**
+     * (앞역, 뒷역) 연결 목록으로 경로 정보를 만듭니다.
+     * directed이면 앞역 -> 뒷역 방향으로만 이동할 수 있습니다.
+     */
+    public static LineTopology build(String lineNum, List<String[]> edges, boolean directed) {
+        Map<String, Integer> index = new LinkedHashMap<>();
+        for (String[] edge : edges) {
+            index.putIfAbsent(edge[0], index.size());
+            index.putIfAbsent(edge[1], index.size());
+        }
+        int n = index.size();
+        if (n > Short.MAX_VALUE) {
+            throw new IllegalStateException(lineNum + " 역 수가 너무 많습니다: " + n);
+        }
+        String[] names = index.keySet().toArray(new String[0]);
+
+        // 인접 리스트 (중복 연결 제거, 입력 순서 유지로 결과가 실행마다 같도록 함)
+        List<Set<Integer>> adjacency = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            adjacency.add(new LinkedHashSet<>());
+        }
+        for (String[] edge : edges) {
+            int a = index.get(edge[0]);
+            int b = index.get(edge[1]);
+            if (a != b) {
+                adjacency.get(a).add(b);
+                if (!directed) {
+                    adjacency.get(b).add(a);
+                }
+            }
+        }
+        int[][] adj = new int[n][];
+        for (int i = 0; i < n; i++) {
+            adj[i] = adjacency.get(i).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        // 모든 역에서 BFS: hops[from][to], next[from][to]
+        short[] hops = new short[n * n];
+        short[] next = new short[n * n];
+        Arrays.fill(hops, (short) UNREACHABLE);
+        Arrays.fill(next, (short) UNREACHABLE);
+        int[] queue = new int[n];
+        for (int src = 0; src < n; src++) {
+            int row = src * n;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = src;
+            hops[row + src] = 0;
+            next[row + src] = (short) src;
+            while (head < tail) {
+                int cur = queue[head++];
+                for (int nb : adj[cur]) {
+                    if (hops[row + nb] != UNREACHABLE) {
+                        continue;
+                    }
+                    hops[row + nb] = (short) (hops[row + cur] + 1);
+                    // src에서 바로 이웃한 역이면 자기 자신이 다음 역, 아니면 부모의 다음 역을 물려받음
+                    next[row + nb] = cur == src ? (short) nb : next[row + cur];
+                    queue[tail++] = nb;
+                }
+            }
+        }
+
+        if (directed) {
+            // 방향 그래프의 종점 = 더 나아갈 역이 없는 역. 분기/순환 정보는 양방향 그래프에서만 계산
+            int[] sinks = IntStream.range(0, n).filter(i -> adj[i].length == 0).toArray();
+            return new LineTopology(lineNum, true, names, Collections.unmodifiableMap(index), adj, hops, next,
+                    sinks, List.of(), null, new boolean[n]);
+        }
+
+        // 종점 = 연결이 하나뿐인 역
+        int[] terminals = IntStream.range(0, n).filter(i -> adj[i].length == 1).toArray();
+        List<int[]> branches = new ArrayList<>();
+        for (int i = 0; i < terminals.length; i++) {
+            for (int j = i + 1; j < terminals.length; j++) {
+                int[] seq = sequence(hops, next, n, terminals[i], terminals[j]);
+                if (seq != null) branches.add(seq);
+            }
+        }
+        // 종점이 하나 이하(순환선 등): 기준 역에서 가장 먼 역까지를 하나의 순서로 남김
+        if (branches.isEmpty() && n > 1) {
+            int from = terminals.length > 0 ? terminals[0] : 0;
+            int farthest = from;
+            for (int to = 0; to < n; to++) {
+                if (hops[from * n + to] > hops[from * n + farthest]) farthest = to;
+            }
+            int[] seq = sequence(hops, next, n, from, farthest);
+            if (seq != null) branches.add(seq);
+        }
+
+        // 각 (from, to) 쌍이 처음으로 함께 나타나는 branch
+        short[] branchIndex = new short[n * n];
+        Arrays.fill(branchIndex, (short) -1);
+        for (int b = 0; b < branches.size(); b++) {
+            int[] seq = branches.get(b);
+            for (int i = 0; i < seq.length; i++) {
+                for (int j = 0; j < seq.length; j++) {
+                    if (branchIndex[seq[i] * n + seq[j]] == -1) branchIndex[seq[i] * n + seq[j]] = (short) b;
+                }
+            }
+        }
+
+        return new LineTopology(lineNum, false, names, Collections.unmodifiableMap(index), adj, hops, next, terminals,
+                Collections.unmodifiableList(branches), branchIndex, ringOf(adj));
+    }
+
+    /**
+     * 연결이 하나뿐인 역을 반복해서 떼어내고 남는 역(2-core) = 순환 구간에 속한 역.
+     */
+    private static boolean[] ringOf(int[][] adj) {
+        int n = adj.length;
+        int[] degree = new int[n];
+        boolean[] alive = new boolean[n];
+        Deque<Integer> leaves = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            degree[i] = adj[i].length;
+            alive[i] = true;
+            if (degree[i] <= 1) leaves.add(i);
+        }
+        while (!leaves.isEmpty()) {
+            int leaf = leaves.poll();
+            if (!alive[leaf]) continue;
+            alive[leaf] = false;
+            for (int nb : adj[leaf]) {
+                if (alive[nb] && --degree[nb] == 1) leaves.add(nb);
+            }
+        }
+        return alive;
+    }
+
+    private static int[] sequence(short[] hops, short[] next, int n, int from, int to) {
+        int length = hops[from * n + to];
+        if (length == UNREACHABLE) {
+            return null;
+        }
+        int[] seq = new int[length + 1];
+        int cur = from;
+        for (int i = 0; i <= length; i++) {
+            seq[i] = cur;
+            cur = next[cur * n + to];
+        }
+        return seq;
+    }
+
+    public String getLineNum() {
+        return lineNum;
+    }
+
+    public int stationCount() {
+        return names.length;
+    }
+
+    public boolean isDirected() {
+        return directed;
+    }
+
+    public boolean contains(String station) {
+        return index.containsKey(station);
+    }
+
+    /** 역의 로컬 인덱스 (없으면 -1) */
+    public int indexOf(String station) {
+        Integer i = index.get(station);
+        return i == null ? -1 : i;
+    }
+
+    public String nameOf(int i) {
+        return names[i];
+    }
+
+    /**
+     * from -> to 최단 경로 (양 끝 포함). 어느 한 쪽이 없거나 이어져 있지 않으면 빈 리스트.
+     */
+    public List<String> route(String from, String to) {
+        int a = indexOf(from);
+        int b = indexOf(to);
+        if (a < 0 || b < 0) {
+            return List.of();
+        }
+        int[] seq = sequence(hops, next, names.length, a, b);
+        if (seq == null) {
+            return List.of();
+        }
+        String[] route = new String[seq.length];
+        for (int i = 0; i < seq.length; i++) {
+            route[i] = names[seq[i]];
+        }
+        return Arrays.asList(route);
+    }
+
+    /** 순환 구간의 역을 한 바퀴 순서대로 (순환 구간이 단순한 고리가 아니면 빈 리스트) */
+    public List<String> ringSequence() {
+        int start = -1;
+        for (int i = 0; i < onRing.length; i++) {
+            if (onRing[i]) {
+                start = i;
+                break;
+            }
+        }
+        if (start < 0) {
+            return List.of();
+        }
+        List<String> ring = new ArrayList<>();
+        int prev = -1;
+        int cur = start;
+        do {
+            ring.add(names[cur]);
+            int following = -1;
+            int ringNeighbors = 0;
+            for (int nb : adj[cur]) {
+                if (!onRing[nb]) continue;
+                ringNeighbors++;
+                if (nb != prev && following == -1) following = nb;
+            }
+            if (ringNeighbors != 2 || following == -1) {
+                return List.of();
+            }
+            prev = cur;
+            cur = following;
+        } while (cur != start && ring.size() <= onRing.length);
+        return cur == start ? ring : List.of();
+    }
+
+    /**
+     * from -> to 경로가 속한 종점-종점 순서의 번호 (branches 인덱스). 양방향 그래프가 아니거나 없으면 -1.
+     */
+    public int branchOf(String from, String to) {
+        int a = indexOf(from);
+        int b = indexOf(to);
+        if (branchIndex == null || a < 0 || b < 0) {
+            return -1;
+        }
+        return branchIndex[a * names.length + b];
+    }
+
+    /** branches 번호의 표시 이름 ("시작종점-끝종점") */
+    public String branchName(int branch) {
+        if (branch < 0 || branch >= branches.size()) {
+            return null;
+        }
+        int[] seq = branches.get(branch);
+        return names[seq[0]] + "-" + names[seq[seq.length - 1]];
+    }
+
+    /** 종점 역 이름 */
+    public List<String> terminals() {
+        List<String> result = new ArrayList<>(terminals.length);
+        for (int t : terminals) result.add(names[t]);
+        return result;
+    }
+
+    /** 종점-종점 정차역 순서 (로컬 인덱스 배열, 수정 금지) */
+    public List<int[]> branches() {
+        return branches;
+    }
+
+    /**
+     * 행렬/배열이 차지하는 대략적인 힙 크기 (바이트). 객체 헤더 16, 참조 4 바이트 기준 추정치.
+     */
+    public long footprintBytes() {
+        long n = names.length;
+        long bytes = 2 * (16 + 2 * n * n);                     // hops, next
+        if (branchIndex != null) bytes += 16 + 2 * n * n;      // branchIndex
+        bytes += 16 + 4 * n + 16 + n;                          // adj 배열, onRing
+        for (int[] a : adj) bytes += 16 + 4L * a.length;
+        bytes += 16 + 4L * terminals.length;
+        for (int[] seq : branches) bytes += 16 + 4L * seq.length;
+        bytes += 16 + 4 * n;                                   // names 배열 (문자열 자체는 제외)
+        bytes += n * (32 + 16);                                // index HashMap 엔트리 + Integer
+        return bytes;
+    }
+}
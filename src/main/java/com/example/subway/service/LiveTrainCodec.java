@@ -0,0 +1,100 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.LiveTrain;
+import com.example.subway.domain.TrainInfo;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * TrainInfo 엔티티를 LiveTrain으로 변환 (DB에서 스냅샷을 읽을 때만 사용).
+ */
+@Component
+public class LiveTrainCodec {
+
+    // API 최종수신시간(recptnDt) 형식
+    private static final DateTimeFormatter RECPTN_DT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final StationDictionary stationDictionary;
+
+    public LiveTrainCodec(StationDictionary stationDictionary) {
+        this.stationDictionary = stationDictionary;
+    }
+
+    /**
+     * 엔티티를 LiveTrain으로 변환합니다. routePool은 같은 내용의 경로 배열을 공유하기 위한 풀로,
+     * 스냅샷 하나를 만드는 동안 같은 인스턴스를 넘겨주면 됩니다.
+     */
+    public LiveTrain fromEntity(TrainInfo info, List<String> route, Map<RouteKey, int[]> routePool) {
+        int[] ids = new int[route.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = stationDictionary.intern(route.get(i));
+        }
+        int[] shared = routePool.computeIfAbsent(new RouteKey(ids), k -> k.ids);
+
+        return new LiveTrain(
+                info.getTrainNo(),
+                info.getLineNum() == null ? null : info.getLineNum().intern(),
+                (short) parseLong(info.getSubwayId(), 0),
+                parseLong(info.getStatnId(), -1),
+                parseLong(info.getStatnTid(), -1),
+                stationDictionary.intern(info.getCurrentStation()),
+                stationDictionary.intern(info.getEndStation()),
+                LiveTrain.Direction.of(info.getUpDown()),
+                LiveTrain.Status.of(info.getTrainSttus()),
+                LiveTrain.ServiceType.of(info.getDirectAt()),
+                "1".equals(info.getLstcarAt()),
+                parseRecptnDt(info.getRecptnDt()),
+                info.getUpdateTime(),
+                shared,
+                info.getRouteOffset() == null ? 0 : info.getRouteOffset());
+    }
+
+    private static LocalDateTime parseRecptnDt(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDateTime.parse(value.trim(), RECPTN_DT_FORMAT);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static long parseLong(String value, long fallback) {
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    /**
+     * 경로 배열을 내용 기준으로 비교하기 위한 키.
+     */
+    public static final class RouteKey {
+        private final int[] ids;
+        private final int hash;
+
+        RouteKey(int[] ids) {
+            this.ids = ids;
+            this.hash = Arrays.hashCode(ids);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RouteKey other && Arrays.equals(ids, other.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.LiveTrain;
+import com.example.subway.dto.NextTrainsResponse;
+import com.example.subway.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 사용자 근무역 기준 "다음 열차" 뷰.
+ * 동기화 주기마다 사용자들의 근무역 목록에 대해 역별 응답을 한 번씩만 만들어 두고(열차 목록 1회 순회),
+ * 요청은 사용자 -> 근무역 -> 미리 직렬화된 응답 조회만 합니다.
+ */
+@Slf4j
+@Service
+public class NextTrainsService {
+
+    // 막차 통과 상태는 운행일(04시 기준)이 바뀌면 초기화
+    private static final int SERVICE_DAY_START_HOUR = 4;
+
+    private final UserRepository userRepository;
+    private final SubwayGraphService subwayGraphService;
+    private final TrainSnapshotService trainSnapshotService;
+    private final StationDictionary stationDictionary;
+    private final ResponseEncoders responseEncoders;
+    private final int arrivalsPerDirection;
+    private final long secondsPerStation;
+    private final int maxCachedStations;
+
+    private volatile Views current = new Views(0, new ConcurrentHashMap<>());
+
+    // 역 -> (호선|방향) -> 막차 상태. 열차가 모두 지나가 목록에서 사라진 방향도 PASSED로 보여주기 위해 보관
+    private final Map<String, Map<String, LastTrainState>> lastTrainStates = new HashMap<>();
+
+    public NextTrainsService(UserRepository userRepository,
+                             SubwayGraphService subwayGraphService,
+                             TrainSnapshotService trainSnapshotService,
+                             StationDictionary stationDictionary,
+                             ResponseEncoders responseEncoders,
+                             @Value("${myapp.next-trains.arrivals-per-direction:3}") int arrivalsPerDirection,
+                             @Value("${myapp.next-trains.seconds-per-station:120}") long secondsPerStation,
+                             @Value("${myapp.snapshot.max-cached-stations:2048}") int maxCachedStations) {
+        this.userRepository = userRepository;
+        this.subwayGraphService = subwayGraphService;
+        this.trainSnapshotService = trainSnapshotService;
+        this.stationDictionary = stationDictionary;
+        this.responseEncoders = responseEncoders;
+        this.arrivalsPerDirection = arrivalsPerDirection;
+        this.secondsPerStation = secondsPerStation;
+        this.maxCachedStations = maxCachedStations;
+    }
+
+    /**
+     * 스냅샷이 게시된 직후 호출됩니다. 사용자 근무역 전체에 대한 뷰를 한 번에 만들어 교체합니다.
+     */
+    public synchronized void materialize(TrainSnapshot snapshot) {
+        Set<Integer> wanted = new HashSet<>();
+        List<String> workStations = userRepository.findDistinctWorkStations();
+        for (String station : workStations) {
+            int id = stationDictionary.idOf(station);
+            if (id != StationDictionary.UNKNOWN) {
+                wanted.add(id);
+            }
+        }
+
+        // 열차마다 남은 경로를 한 번만 훑어서 관심 역에 도착 예정 정보를 붙임
+        Map<Integer, List<Upcoming>> upcomingByStation = new HashMap<>();
+        for (LiveTrain train : snapshot.getTrains()) {
+            int currIndex = train.indexOf(train.getCurrentStationId());
+            if (currIndex == -1) {
+                continue;
+            }
+            int[] route = train.getRoute();
+            Set<Integer> matched = null;
+            for (int i = currIndex; i < route.length; i++) {
+                if (!wanted.contains(route[i])) {
+                    continue;
+                }
+                // 순환 경로에서 같은 역이 다시 나오면 가장 가까운 도착만 사용
+                if (matched == null) {
+                    matched = new HashSet<>();
+                }
+                if (matched.add(route[i])) {
+                    upcomingByStation.computeIfAbsent(route[i], k -> new ArrayList<>())
+                            .add(new Upcoming(train, i - currIndex));
+                }
+            }
+        }
+
+        Map<String, CachedResponse> views = new ConcurrentHashMap<>();
+        for (String station : workStations) {
+            List<Upcoming> upcoming = upcomingByStation.getOrDefault(stationDictionary.idOf(station), List.of());
+            views.put(station, encode(snapshot, station, buildView(snapshot, station, upcoming, true)));
+        }
+        current = new Views(snapshot.getVersion(), views);
+        log.debug("[NEXT TRAINS] version {}: 근무역 {}곳 뷰 생성", snapshot.getVersion(), views.size());
+    }
+
+    /**
+     * 사용자의 근무역에 대한 현재 버전의 응답. 사용자가 없거나 근무역이 없으면 empty.
+     */
+    public Optional<CachedResponse> getNextTrains(Long userId) {
+        return userRepository.findById(userId)
+                .map(user -> user.getWorkStation())
+                .filter(Objects::nonNull)
+                .map(this::viewOf);
+    }
+
+    private CachedResponse viewOf(String station) {
+        Views views = current;
+        CachedResponse cached = views.byStation.get(station);
+        if (cached != null) {
+            return cached;
+        }
+        // 이번 주기 이후에 근무역을 바꾼 사용자: 현재 스냅샷으로 그 역만 계산해서 다음 주기까지 공유
+        TrainSnapshot snapshot = trainSnapshotService.getSnapshot();
+        int stationId = stationDictionary.idOf(station);
+        List<Upcoming> upcoming = new ArrayList<>();
+        if (stationId != StationDictionary.UNKNOWN) {
+            for (LiveTrain train : snapshot.getTrains()) {
+                int currIndex = train.indexOf(train.getCurrentStationId());
+                int stationIndex = train.indexOf(stationId);
+                if (currIndex != -1 && stationIndex >= currIndex) {
+                    upcoming.add(new Upcoming(train, stationIndex - currIndex));
+                }
+            }
+        }
+        CachedResponse response = encode(snapshot, station, buildView(snapshot, station, upcoming, false));
+        if (views.version == snapshot.getVersion() && views.byStation.size() < maxCachedStations) {
+            views.byStation.putIfAbsent(station, response);
+        }
+        return response;
+    }
+
+    private NextTrainsResponse buildView(TrainSnapshot snapshot, String station, List<Upcoming> upcoming,
+                                         boolean trackLastTrain) {
+        // 호선/방향별로 묶고 남은 정거장 수 순으로 정렬
+        Map<String, List<Upcoming>> byDirection = new TreeMap<>();
+        for (Upcoming u : upcoming) {
+            // 급행 열차가 정차하지 않고 통과 중인 역은 제외
+            if (u.remaining == 0 && !subwayGraphService.stopsAt(u.train.getLineNum(),
+                    u.train.serviceType().code(), station)) {
+                continue;
+            }
+            byDirection.computeIfAbsent(u.train.getLineNum() + "|" + u.train.direction().code(),
+                    k -> new ArrayList<>()).add(u);
+        }
+
+        // 지금은 도착 예정 열차가 없지만 막차 상태를 추적 중인 방향도 포함
+        Map<String, LastTrainState> states;
+        synchronized (this) {
+            states = new HashMap<>(lastTrainStates.getOrDefault(station, Map.of()));
+        }
+        Set<String> directionKeys = new TreeSet<>(byDirection.keySet());
+        directionKeys.addAll(states.keySet());
+
+        List<NextTrainsResponse.Direction> directions = new ArrayList<>();
+        for (String directionKey : directionKeys) {
+            List<Upcoming> trains = byDirection.getOrDefault(directionKey, new ArrayList<>());
+            trains.sort(Comparator.comparingInt(u -> u.remaining));
+
+            boolean lastTrainApproaching = trains.stream().anyMatch(u -> u.train.isLastTrain());
+            String lastTrainStatus = trackLastTrain
+                    ? updateLastTrainState(station, directionKey, lastTrainApproaching, snapshot.getCreatedAt())
+                    : peekLastTrainState(states.get(directionKey), lastTrainApproaching, snapshot.getCreatedAt());
+            if (trains.isEmpty() && !"PASSED".equals(lastTrainStatus)) {
+                continue;
+            }
+
+            List<NextTrainsResponse.Arrival> arrivals = new ArrayList<>();
+            for (Upcoming u : trains.subList(0, Math.min(arrivalsPerDirection, trains.size()))) {
+                arrivals.add(new NextTrainsResponse.Arrival(
+                        u.train.getTrainNo(),
+                        stationDictionary.nameOf(u.train.getCurrentStationId()),
+                        stationDictionary.nameOf(u.train.getEndStationId()),
+                        u.remaining,
+                        etaSeconds(u, snapshot.getCreatedAt()),
+                        u.train.isLastTrain(),
+                        u.train.serviceType() != LiveTrain.ServiceType.LOCAL));
+            }
+            int sep = directionKey.lastIndexOf('|');
+            directions.add(new NextTrainsResponse.Direction(directionKey.substring(0, sep),
+                    directionKey.substring(sep + 1), lastTrainStatus, arrivals));
+        }
+        return new NextTrainsResponse(station, snapshot.getVersion(), directions);
+    }
+
+    // 남은 정거장 수 x 정거장당 평균 소요시간에서 위치 수신 이후 흐른 시간을 뺀 값
+    private long etaSeconds(Upcoming u, LocalDateTime now) {
+        LocalDateTime observedAt = u.train.recptnDateTime() != null ? u.train.recptnDateTime()
+                : u.train.updateDateTime();
+        long elapsed = observedAt == null ? 0 : Math.max(0, Duration.between(observedAt, now).getSeconds());
+        return Math.max(0, u.remaining * secondsPerStation - elapsed);
+    }
+
+    /**
+     * 막차가 이 역/방향의 도착 예정 목록에 있다가 빠지면 통과한 것으로 보고 그 운행일 동안 PASSED로 유지합니다.
+     */
+    private synchronized String updateLastTrainState(String station, String directionKey, boolean approaching,
+                                                     LocalDateTime now) {
+        LocalDate serviceDay = serviceDay(now);
+        LastTrainState state = lastTrainStates.computeIfAbsent(station, k -> new HashMap<>())
+                .computeIfAbsent(directionKey, k -> new LastTrainState());
+        if (!serviceDay.equals(state.serviceDay)) {
+            state.serviceDay = serviceDay;
+            state.seen = false;
+            state.passed = false;
+        }
+        if (approaching) {
+            state.seen = true;
+        } else if (state.seen) {
+            state.passed = true;
+        }
+        return approaching ? "APPROACHING" : state.passed ? "PASSED" : "NONE";
+    }
+
+    private static String peekLastTrainState(LastTrainState state, boolean approaching, LocalDateTime now) {
+        if (approaching) {
+            return "APPROACHING";
+        }
+        return state != null && state.passed && serviceDay(now).equals(state.serviceDay) ? "PASSED" : "NONE";
+    }
+
+    private static LocalDate serviceDay(LocalDateTime time) {
+        return time.minusHours(SERVICE_DAY_START_HOUR).toLocalDate();
+    }
+
+    private CachedResponse encode(TrainSnapshot snapshot, String station, NextTrainsResponse view) {
+        // 근무역을 바꾼 사용자가 같은 버전의 다른 역 응답으로 304를 받지 않도록 역을 ETag에 포함
+        return CachedResponse.of(ETags.of(snapshot.getVersion(), station), view, responseEncoders);
+    }
+
+    private static final class Upcoming {
+        private final LiveTrain train;
+        private final int remaining;
+
+        private Upcoming(LiveTrain train, int remaining) {
+            this.train = train;
+            this.remaining = remaining;
+        }
+    }
+
+    private static final class LastTrainState {
+        private LocalDate serviceDay;
+        private boolean seen;
+        private boolean passed;
+    }
+
+    // 스냅샷 버전 하나에 대한 역별 뷰
+    private static final class Views {
+        private final long version;
+        private final Map<String, CachedResponse> byStation;
+
+        private Views(long version, Map<String, CachedResponse> byStation) {
+            this.version = version;
+            this.byStation = byStation;
+        }
+    }
+}
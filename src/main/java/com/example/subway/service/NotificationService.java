@@ -2,113 +2,235 @@ package com.example.subway.service;
 
 import com.example.subway.domain.TrainInfo;
 import com.example.subway.domain.User;
+import com.example.subway.repository.FiredAlertRepository;
 import com.example.subway.repository.UserRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
 
+/**
+ * 막차 알림.
+ * 열차 위치가 바뀐 경우에만(이전 위치 -> 새 위치) 평가하며, 남은 정거장 수가 사용자 알림 정거장 수(alertThreshold)를
+ * 넘어서 그 이하로 들어온 구독을 모두 찾아 알림을 보냅니다. 폴링 사이에 열차가 두 정거장 이상 움직여도 놓치지 않습니다.
+ * (사용자, 열차)마다 운행일(04시 기준) 동안 한 번만 보냅니다. 보낸 알림은 fired_alert 테이블에 남기므로
+ * 재시작하거나 여러 노드가 같은 열차를 평가해도 다시 보내지 않습니다.
+ */
 @Slf4j
 @Service
 public class NotificationService {
 
-    private final UserRepository userRepository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-    private static final String ALERT_FILE = "alert.json"; // 알림 기록 파일
+    // 알림 중복 방지는 운행일(04시 기준) 단위
+    private static final int SERVICE_DAY_START_HOUR = 4;
 
-    public NotificationService(UserRepository userRepository) {
+    private final UserRepository userRepository;
+    private final FiredAlertRepository firedAlertRepository;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter prettyWriter;
+    private final long subscriptionRefreshMillis;
+    private final int firedRetentionDays;
+    private final File alertFile;             // 알림 기록 파일 (alert.json)
+    private final Counter firedCounter;
+    private final Counter duplicateCounter;
+
+    // 근무역 -> 구독(사용자, 알림 정거장 수). 프로필 변경 시 또는 refresh 주기마다 다시 읽음
+    private volatile Subscriptions subscriptions = new Subscriptions(Map.of(), 0, 0);
+    private volatile boolean subscriptionsStale = true;
+
+    // 마지막으로 오래된 fired_alert를 정리한 운행일
+    private LocalDate prunedServiceDay;
+
+    public NotificationService(UserRepository userRepository, FiredAlertRepository firedAlertRepository,
+                               ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                               @Value("${myapp.alerts.subscription-refresh:60000}") long subscriptionRefreshMillis,
+                               @Value("${myapp.alerts.fired-retention-days:30}") int firedRetentionDays,
+                               @Value("${myapp.alerts.file:alert.json}") String alertFile) {
         this.userRepository = userRepository;
+        this.firedAlertRepository = firedAlertRepository;
+        this.objectMapper = objectMapper;
+        this.prettyWriter = objectMapper.writerWithDefaultPrettyPrinter();
+        this.subscriptionRefreshMillis = subscriptionRefreshMillis;
+        this.firedRetentionDays = firedRetentionDays;
+        this.alertFile = new File(alertFile);
+        this.firedCounter = Counter.builder("subway.alerts.fired")
+                .description("보낸 막차 알림 수")
+                .register(meterRegistry);
+        this.duplicateCounter = Counter.builder("subway.alerts.duplicates")
+                .description("같은 (사용자, 열차)에 이미 보내서 생략한 알림 수")
+                .register(meterRegistry);
     }
 
     /**
-     * 막차 열차에 대해, 해당 열차의 stationsJson(경로)에서
-     * 현재역부터 사용자의 근무역까지 남은 정거장이 사용자가 설정한 alertThreshold와 같으면
-     * 알림 이벤트를 alert.json 파일에 기록합니다.
+     * 열차 위치 변화 하나.
+     * previousStation/previousPath는 갱신 전 현재역과 경로(새 열차면 null), path는 갱신 후 경로(현재역부터).
      */
-    public void checkAndSendAlerts(TrainInfo train) {
-        // 막차 여부 확인: "1"이면 막차임
-        if (!"1".equals(train.getLstcarAt())) {
-            return;
-        }
+    public record Transition(TrainInfo train, String previousStation, List<String> previousPath, List<String> path) {
+    }
 
-        List<String> route = parseRoute(train.getStationsJson());
-        if (route == null || route.isEmpty()) {
-            return;
-        }
+    /**
+     * 근무역/알림 정거장 수가 바뀌었을 때 호출합니다. 다음 평가에서 구독을 다시 읽습니다.
+     */
+    public void invalidateSubscriptions() {
+        subscriptionsStale = true;
+    }
 
-        int currIndex = route.indexOf(train.getCurrentStation());
-        if (currIndex == -1) {
-            return;
-        }
+    /**
+     * 위치가 바뀐 막차들에 대해 알림 정거장 수를 넘어선 구독을 찾아 alert.json에 기록합니다.
+     * 평가 비용은 움직인 막차 수 x 남은 경로 중 알림 범위(최대 알림 정거장 수)에 비례합니다.
+     */
+    public void onTrainsMoved(List<Transition> transitions) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        Subscriptions subs = null;
+        LocalDate serviceDay = null;
+        for (Transition transition : transitions) {
+            TrainInfo train = transition.train();
+            // 막차 여부 확인: "1"이면 막차임
+            if (!"1".equals(train.getLstcarAt()) || transition.path() == null || transition.path().isEmpty()) {
+                continue;
+            }
+            if (subs == null) {
+                subs = currentSubscriptions();
+                serviceDay = LocalDateTime.now().minusHours(SERVICE_DAY_START_HOUR).toLocalDate();
+                pruneIfNewServiceDay(serviceDay);
+            }
+            int currIndex = transition.path().indexOf(train.getCurrentStation());
+            if (currIndex == -1) {
+                continue;
+            }
 
-        List<User> users = userRepository.findAll();
-        for (User user : users) {
-            if (user.getWorkStation() == null) continue;
+            List<String> path = transition.path();
+            int end = Math.min(path.size(), currIndex + subs.maxThreshold() + 1);
+            for (int i = currIndex; i < end; i++) {
+                String station = path.get(i);
+                List<Subscription> atStation = subs.byStation().get(station);
+                if (atStation == null || path.indexOf(station) != i) {
+                    continue;
+                }
+                int remaining = i - currIndex;
+                int previousRemaining = previousRemaining(transition, station);
+                for (Subscription sub : atStation) {
+                    // 이전 위치에서는 알림 범위 밖이었고 이번에 범위 안으로 들어온 경우
+                    if (remaining > sub.threshold() || previousRemaining <= sub.threshold()) {
+                        continue;
+                    }
+                    // 알림 기록(fired_alert 행)과 중복 방지 키를 한 번의 INSERT IGNORE로 남김
+                    LocalDateTime firedAt = LocalDateTime.now();
+                    if (firedAlertRepository.insertIfAbsent(serviceDay, sub.userId(), train.getTrainNo(),
+                            station, remaining, firedAt) == 0) {
+                        duplicateCounter.increment();
+                        continue;
+                    }
+                    firedCounter.increment();
+                    records.add(alertRecord(sub, train, station, remaining, firedAt));
+                }
+            }
+        }
+        logAlertEvents(records);
+    }
 
-            int stationIndex = route.indexOf(user.getWorkStation());
-            if (stationIndex == -1) continue;
+    /**
+     * 갱신 전 위치에서 station까지 남은 정거장 수. 새 열차이거나 이전 경로에서 찾을 수 없으면 무한대로 봅니다.
+     */
+    private static int previousRemaining(Transition transition, String station) {
+        List<String> previousPath = transition.previousPath();
+        if (previousPath == null || transition.previousStation() == null) {
+            return Integer.MAX_VALUE;
+        }
+        int from = previousPath.indexOf(transition.previousStation());
+        int to = previousPath.indexOf(station);
+        if (from == -1 || to == -1 || to < from) {
+            return Integer.MAX_VALUE;
+        }
+        return to - from;
+    }
 
-            int remaining = stationIndex - currIndex;
-            if (remaining == user.getAlertThreshold()) {
-                System.out.println("실행요");
-                // 조건에 맞는 경우 alert.json 파일에 알림 이벤트 기록
-                logAlertEvent(user, train, remaining);
-            }
+    private Subscriptions currentSubscriptions() {
+        Subscriptions current = subscriptions;
+        long now = System.currentTimeMillis();
+        if (!subscriptionsStale && now - current.loadedAt() < subscriptionRefreshMillis) {
+            return current;
+        }
+        subscriptionsStale = false;
+        Map<String, List<Subscription>> byStation = new HashMap<>();
+        int maxThreshold = 0;
+        for (User user : userRepository.findAll()) {
+            if (user.getWorkStation() == null || user.getAlertThreshold() < 0) continue;
+            byStation.computeIfAbsent(user.getWorkStation(), k -> new ArrayList<>())
+                    .add(new Subscription(user.getId(), user.getUsername(), user.getWorkStation(), user.getAlertThreshold()));
+            maxThreshold = Math.max(maxThreshold, user.getAlertThreshold());
         }
+        current = new Subscriptions(byStation, maxThreshold, now);
+        subscriptions = current;
+        log.debug("[ALERT] 구독 {}개 역 다시 읽음 (최대 알림 정거장 수 {})", byStation.size(), maxThreshold);
+        return current;
     }
 
-    // stationsJson 문자열을 List<String>으로 파싱하는 헬퍼 메서드
-    private List<String> parseRoute(String json) {
-        if (json == null || json.isBlank()) {
-            return null;
+    // 운행일이 바뀌면 보관 기간이 지난 알림 기록을 지움
+    private synchronized void pruneIfNewServiceDay(LocalDate serviceDay) {
+        if (serviceDay.equals(prunedServiceDay)) {
+            return;
         }
-        try {
-            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
-        } catch (IOException e) {
-            log.error("Failed to parse route JSON: {}", json, e);
-            return null;
+        prunedServiceDay = serviceDay;
+        int deleted = firedAlertRepository.deleteBefore(serviceDay.minusDays(firedRetentionDays));
+        if (deleted > 0) {
+            log.info("[ALERT] {}일 지난 알림 기록 {}건 삭제", firedRetentionDays, deleted);
         }
     }
 
-    // 알림 이벤트를 alert.json 파일에 기록하는 헬퍼 메서드
-    private void logAlertEvent(User user, TrainInfo train, int remaining) {
-        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static Map<String, Object> alertRecord(Subscription sub, TrainInfo train, String station, int remaining,
+                                                   LocalDateTime firedAt) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("timestamp", firedAt.toString());
+        record.put("username", sub.username());
+        record.put("trainNo", train.getTrainNo());
+        record.put("workStation", station);
+        record.put("remainingStops", remaining);
+        record.put("message", "Alert: Last train " + train.getTrainNo() +
+                " will arrive at your station '" + station + "' in " + remaining + " stops.");
+        return record;
+    }
+
+    // 알림 기록을 alert.json 파일에 한 번에 덧붙이는 헬퍼 메서드
+    // 파일 전체를 읽고 다시 쓰므로 notify 작업자가 여럿이어도 한 번에 하나만 씀
+    private synchronized void logAlertEvents(List<Map<String, Object>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
         List<Map<String, Object>> alertList = new ArrayList<>();
-        File file = new File(ALERT_FILE);
+        File file = alertFile;
 
         // 기존 alert.json 파일이 존재하면 기존 기록을 불러옴
         if (file.exists()) {
             try {
-                alertList = mapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {});
+                alertList = objectMapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {});
             } catch (IOException e) {
                 log.error("alert.json 파일 읽기 실패: {}", e.getMessage(), e);
             }
         }
-
-        // 새로운 알림 기록 생성
-        Map<String, Object> record = new HashMap<>();
-        record.put("timestamp", LocalDateTime.now().toString());
-        record.put("username", user.getUsername());
-        record.put("trainNo", train.getTrainNo());
-        record.put("workStation", user.getWorkStation());
-        record.put("remainingStops", remaining);
-        record.put("message", "Alert: Last train " + train.getTrainNo() +
-                " will arrive at your station '" + user.getWorkStation() + "' in " + remaining + " stops.");
-
-        alertList.add(record);
+        alertList.addAll(records);
 
         // alert.json 파일에 기록 저장
         try {
-            mapper.writeValue(file, alertList);
-            log.info("alert.json 파일에 알림 기록 완료: {}", record);
+            prettyWriter.writeValue(file, alertList);
+            log.info("alert.json 파일에 알림 {}건 기록 완료: {}", records.size(), records);
         } catch (IOException e) {
             log.error("alert.json 파일 쓰기 실패: {}", e.getMessage(), e);
         }
     }
+
+    private record Subscription(Long userId, String username, String workStation, int threshold) {
+    }
+
+    private record Subscriptions(Map<String, List<Subscription>> byStation, int maxThreshold, long loadedAt) {
+    }
 }
@@ -0,0 +1,162 @@
+package com.example.subway.service;
+
+import com.example.subway.dto.PathFailureResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 경로 탐색 실패를 (호선, 출발역, 종착역, 사유)별 카운터로 집계합니다.
+ * 실패 한 건마다 파일을 다시 쓰지 않고, 주기적으로 직전 flush 이후 늘어난 건수만
+ * 한 줄짜리 JSON으로 diagnostics 파일 끝에 덧붙입니다.
+ */
+@Slf4j
+@Service
+public class PathFailureDiagnostics {
+
+    private final Path file;
+    private final int maxKeys;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, Failure> failures = new ConcurrentHashMap<>();
+    private final Counter failureCounter;
+    private final Counter droppedCounter;
+    private final Counter negativeCacheHitCounter;
+
+    public PathFailureDiagnostics(MeterRegistry meterRegistry,
+                                  ObjectMapper objectMapper,
+                                  @Value("${myapp.pathfinding.diagnostics-file:bfs_failures.jsonl}") String file,
+                                  @Value("${myapp.pathfinding.max-failure-keys:10000}") int maxKeys) {
+        this.file = Paths.get(file);
+        this.maxKeys = maxKeys;
+        this.objectMapper = objectMapper;
+        this.failureCounter = Counter.builder("subway.pathfinding.failures")
+                .description("경로 탐색 실패 수 (negative cache 적중 포함)")
+                .register(meterRegistry);
+        this.droppedCounter = Counter.builder("subway.pathfinding.failures.dropped")
+                .description("집계 키 상한을 넘어 개별 집계되지 않은 실패 수")
+                .register(meterRegistry);
+        this.negativeCacheHitCounter = Counter.builder("subway.pathfinding.negative-cache.hits")
+                .description("탐색 없이 negative cache로 판정한 실패 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 실패 한 건을 기록합니다. visitedCount는 탐색 시 방문한 노드 수(탐색 없이 캐시로 판정했으면 -1).
+     */
+    public void record(String lineNum, String start, String end, String reason, int visitedCount) {
+        failureCounter.increment();
+        if (visitedCount < 0) {
+            negativeCacheHitCounter.increment();
+        }
+        String key = lineNum + "|" + start + "|" + end + "|" + reason;
+        Failure failure = failures.get(key);
+        if (failure == null) {
+            if (failures.size() >= maxKeys) {
+                droppedCounter.increment();
+                return;
+            }
+            failure = failures.computeIfAbsent(key, k -> new Failure(lineNum, start, end, reason));
+        }
+        failure.hit(visitedCount);
+    }
+
+    public List<PathFailureResponse> getFailures() {
+        List<PathFailureResponse> result = new ArrayList<>();
+        for (Failure f : failures.values()) {
+            synchronized (f) {
+                result.add(new PathFailureResponse(f.lineNum, f.start, f.end, f.reason,
+                        f.count, f.visitedCount, f.firstSeen, f.lastSeen));
+            }
+        }
+        result.sort(Comparator.comparingLong(PathFailureResponse::getCount).reversed());
+        return result;
+    }
+
+    /**
+     * 직전 flush 이후 늘어난 실패만 diagnostics 파일에 한 줄씩 덧붙입니다.
+     */
+    @Scheduled(fixedDelayString = "${myapp.pathfinding.diagnostics-flush-interval:60000}")
+    @PreDestroy
+    public void flush() {
+        StringBuilder lines = new StringBuilder();
+        String now = LocalDateTime.now().toString();
+        for (Failure f : failures.values()) {
+            Map<String, Object> record;
+            synchronized (f) {
+                long delta = f.count - f.flushedCount;
+                if (delta == 0) {
+                    continue;
+                }
+                f.flushedCount = f.count;
+                record = new LinkedHashMap<>();
+                record.put("timestamp", now);
+                record.put("lineNum", f.lineNum);
+                record.put("start", f.start);
+                record.put("end", f.end);
+                record.put("reason", f.reason);
+                record.put("count", delta);
+                record.put("totalCount", f.count);
+                record.put("visitedCount", f.visitedCount);
+            }
+            try {
+                lines.append(objectMapper.writeValueAsString(record)).append('\n');
+            } catch (JsonProcessingException e) {
+                log.error("경로 탐색 실패 기록 직렬화 실패: {}", e.getMessage());
+            }
+        }
+        if (lines.length() == 0) {
+            return;
+        }
+        try {
+            Files.write(file, lines.toString().getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            log.info("경로 탐색 실패 집계를 {} 파일에 덧붙였습니다.", file);
+        } catch (IOException e) {
+            log.error("Error writing to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static final class Failure {
+        private final String lineNum;
+        private final String start;
+        private final String end;
+        private final String reason;
+        private final LocalDateTime firstSeen = LocalDateTime.now();
+        private LocalDateTime lastSeen = firstSeen;
+        private long count;
+        private long flushedCount;
+        private int visitedCount;
+
+        private Failure(String lineNum, String start, String end, String reason) {
+            this.lineNum = lineNum;
+            this.start = start;
+            this.end = end;
+            this.reason = reason;
+        }
+
+        private synchronized void hit(int visited) {
+            count++;
+            lastSeen = LocalDateTime.now();
+            if (visited >= 0) {
+                visitedCount = visited;
+            }
+        }
+    }
+}
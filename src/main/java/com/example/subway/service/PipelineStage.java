@@ -0,0 +1,150 @@
+package com.example.subway.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * 동기화 파이프라인의 한 단계.
+ * 고정 크기 큐에서 작업을 최대 batchSize개씩 꺼내 workers개 스레드로 처리하고, 처리한 작업을 다음 단계 큐에 넣습니다.
+ * 다음 단계 큐가 가득 차면 넣을 자리가 날 때까지 기다리므로, 느린 단계(DB, 파일 기록 등)가 앞 단계에 backpressure를 겁니다.
+ *
+ * 단계별 메트릭 (태그 stage):
+ * - subway.sync.pipeline.queue.depth   입력 큐에 쌓인 작업 수
+ * - subway.sync.pipeline.queue.wait    작업이 입력 큐에서 기다린 시간
+ * - subway.sync.pipeline.process       배치 하나 처리 시간
+ * - subway.sync.pipeline.blocked       다음 단계 큐가 가득 차서 기다린 시간
+ */
+@Slf4j
+final class PipelineStage<T> {
+
+    @FunctionalInterface
+    interface Handler<T> {
+        void handle(List<T> batch) throws Exception;
+    }
+
+    private final String name;
+    private final BlockingQueue<Envelope<T>> queue;
+    private final int batchSize;
+    private final Handler<T> handler;
+    private final BiConsumer<T, Exception> onError;
+    private final PipelineStage<T> next;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final Timer waitTimer;
+    private final Timer processTimer;
+    private final Timer blockedTimer;
+
+    /**
+     * @param next    처리 후 작업을 넘길 단계 (마지막 단계면 null)
+     * @param onError 배치 처리 중 예외(Error 포함)가 나면 배치의 작업마다 호출. 작업은 그대로 다음 단계로 넘어갑니다.
+     */
+    PipelineStage(String name, int capacity, int workers, int batchSize, Handler<T> handler,
+                  BiConsumer<T, Exception> onError, PipelineStage<T> next, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.handler = handler;
+        this.onError = onError;
+        this.next = next;
+
+        Gauge.builder("subway.sync.pipeline.queue.depth", queue, BlockingQueue::size)
+                .description("동기화 파이프라인 단계 입력 큐에 쌓인 작업 수")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("subway.sync.pipeline.queue.wait")
+                .description("작업이 단계 입력 큐에서 기다린 시간")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.processTimer = Timer.builder("subway.sync.pipeline.process")
+                .description("단계에서 배치 하나를 처리한 시간")
+                .tag("stage", name)
+                .register(meterRegistry);
+        this.blockedTimer = Timer.builder("subway.sync.pipeline.blocked")
+                .description("다음 단계 큐가 가득 차서 기다린 시간 (backpressure)")
+                .tag("stage", name)
+                .register(meterRegistry);
+
+        for (int i = 1; i <= Math.max(1, workers); i++) {
+            Thread worker = new Thread(this::run, "sync-" + name + "-" + i);
+            worker.setDaemon(true);
+            this.workers.add(worker);
+        }
+    }
+
+    void start() {
+        workers.forEach(Thread::start);
+    }
+
+    void stop() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * 작업을 입력 큐에 넣습니다. 큐가 가득 차면 자리가 날 때까지 기다립니다.
+     */
+    void submit(T item) throws InterruptedException {
+        queue.put(new Envelope<>(item, System.nanoTime()));
+    }
+
+    private void run() {
+        List<Envelope<T>> envelopes = new ArrayList<>(batchSize);
+        List<T> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                envelopes.add(queue.take());
+                queue.drainTo(envelopes, batchSize - 1);
+
+                long start = System.nanoTime();
+                for (Envelope<T> envelope : envelopes) {
+                    waitTimer.record(start - envelope.enqueuedAt, TimeUnit.NANOSECONDS);
+                    batch.add(envelope.item);
+                }
+                try {
+                    handler.handle(batch);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Throwable t) {
+                    // Error도 잡아서 배치의 작업마다 오류 처리를 호출 (작업이 정리되지 않은 채 유실되지 않도록)
+                    log.error("[PIPELINE] {} 단계 처리 실패: {}", name, t.getMessage(), t);
+                    Exception cause = t instanceof Exception e ? e : new IllegalStateException(t);
+                    for (T item : batch) {
+                        try {
+                            onError.accept(item, cause);
+                        } catch (Throwable nested) {
+                            log.error("[PIPELINE] {} 단계 오류 처리 실패: {}", name, nested.getMessage(), nested);
+                        }
+                    }
+                }
+                processTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+                if (next != null) {
+                    long blockedFrom = System.nanoTime();
+                    for (T item : batch) {
+                        next.submit(item);
+                    }
+                    blockedTimer.record(System.nanoTime() - blockedFrom, TimeUnit.NANOSECONDS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                // 작업자 스레드가 죽으면 대신할 스레드가 없어 단계가 멈추므로, 어떤 오류에도 다음 작업을 계속 처리
+                log.error("[PIPELINE] {} 단계 작업자 오류: {}", name, t.getMessage(), t);
+            } finally {
+                envelopes.clear();
+                batch.clear();
+            }
+        }
+    }
+
+    private record Envelope<T>(T item, long enqueuedAt) {
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.LiveTrain;
+import com.example.subway.dto.TrainPositionResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 폴링 사이의 열차 위치 추정.
+ * 스냅샷이 게시될 때 열차마다 지금 지나는 구간(앞역 -> 뒷역), 기준 시각(위치 수신 시각), 시작 진행률, 구간 소요시간을
+ * 변경되지 않는 Track으로 만들어 두고, 조회 시에는 현재 시각으로 진행률과 좌표(두 역 좌표의 선형 보간)만 계산합니다.
+ *
+ * 열차상태별 구간:
+ * - 도착(1): 현재역 -> 다음역, 정차시간(dwell) 동안 0에 머문 뒤 출발
+ * - 출발(2): 현재역 -> 다음역, 수신 시각부터 진행
+ * - 전역출발(3): 직전역 -> 현재역, 수신 시각부터 진행
+ * - 진입(0): 직전역 -> 현재역, 거의 도착한 위치에서 시작
+ * 직전역은 연속한 두 스냅샷 사이의 역 변경으로 알고, 모르면(새 열차 등) 현재역에 둡니다. 진행률은 1을 넘지 않습니다.
+ *
+ * 구간 소요시간은 열차가 인접한 두 역에 차례로 들어선 시각 차이를 (호선, 앞역, 뒷역)마다 지수이동평균으로 학습하고,
+ * 관측이 없는 구간은 정거장당 평균 소요시간을 사용합니다.
+ * 직전역과 소요시간은 동기화 단계가 아니라 공유 DB에서 읽은 스냅샷에서 배우므로, 호선 lease를 가진 노드가 아니어도
+ * 모든 노드가 같은 스냅샷으로 같은 상태를 만듭니다.
+ */
+@Slf4j
+@Service
+public class PositionInterpolator {
+
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    // 진입 상태로 관측된 열차가 구간에서 이미 지나온 비율
+    private static final double APPROACH_PROGRESS = 0.8;
+    // 구간 소요시간으로 인정하는 관측 범위 (폴링 누락, 장시간 정차 등은 제외)
+    private static final long MIN_SEGMENT_MILLIS = 15_000;
+    private static final long MAX_SEGMENT_MILLIS = 900_000;
+
+    private final StationDictionary stationDictionary;
+    private final StationCoordinates stationCoordinates;
+    private final long defaultSegmentMillis;
+    private final long dwellMillis;
+    private final double smoothing;
+
+    // "호선|앞역|뒷역" -> 관측 구간 소요시간 지수이동평균 (ms)
+    private final Map<String, Double> segmentMillis = new ConcurrentHashMap<>();
+    // 열차번호 -> 직전 스냅샷에서 관측한 역 (게시 때마다 새 스냅샷의 열차로 다시 만듦, publish에서만 사용)
+    private Map<String, Visit> visits = new HashMap<>();
+
+    private volatile Tracks tracks = new Tracks(Map.of(), List.of());
+
+    public PositionInterpolator(StationDictionary stationDictionary,
+                                StationCoordinates stationCoordinates,
+                                MeterRegistry meterRegistry,
+                                @Value("${myapp.next-trains.seconds-per-station:120}") long secondsPerStation,
+                                @Value("${myapp.positions.dwell-seconds:30}") long dwellSeconds,
+                                @Value("${myapp.positions.smoothing:0.2}") double smoothing) {
+        this.stationDictionary = stationDictionary;
+        this.stationCoordinates = stationCoordinates;
+        this.defaultSegmentMillis = secondsPerStation * 1000;
+        this.dwellMillis = dwellSeconds * 1000;
+        this.smoothing = smoothing;
+
+        Gauge.builder("subway.positions.segments", segmentMillis, Map::size)
+                .description("소요시간을 관측한 (호선, 앞역, 뒷역) 구간 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 스냅샷이 게시된 직후 호출됩니다. 직전 스냅샷과 비교해 역을 옮긴 열차의 구간 소요시간을 학습하고,
+     * 열차마다 추정에 필요한 상태를 만들어 교체합니다.
+     */
+    public synchronized void publish(TrainSnapshot snapshot) {
+        Map<String, Visit> nextVisits = new HashMap<>();
+        Map<String, List<Track>> byLine = new HashMap<>();
+        List<Track> all = new ArrayList<>();
+        for (LiveTrain train : snapshot.getTrains()) {
+            Visit visit = observe(train, visits.get(train.getTrainNo()));
+            nextVisits.put(train.getTrainNo(), visit);
+            Track track = toTrack(train, visit);
+            if (track != null) {
+                all.add(track);
+                byLine.computeIfAbsent(train.getLineNum(), k -> new ArrayList<>()).add(track);
+            }
+        }
+        // 스냅샷에 없는 열차는 여기서 빠짐
+        visits = nextVisits;
+        tracks = new Tracks(byLine, all);
+        log.debug("[POSITION] version {}: 열차 {}대, 관측 구간 {}개", snapshot.getVersion(), all.size(), segmentMillis.size());
+    }
+
+    /**
+     * 직전 스냅샷의 관측(last, 새 열차면 null)과 비교한 이번 관측.
+     * 직전 경로에서 바로 다음 역으로 옮겼으면 인접 구간으로 보고, 직전 역에 들어선 시각을 알면 소요시간을 학습합니다.
+     * 폴링 사이에 두 정거장 이상 움직였으면 직전역을 모르는 것으로 봅니다.
+     */
+    private Visit observe(LiveTrain train, Visit last) {
+        int station = train.getCurrentStationId();
+        if (last == null) {
+            // 새 열차는 역에 들어선 시각을 모르므로 다음 구간 소요시간 관측에 쓰지 않음
+            return new Visit(station, -1, -1, train.getRoute());
+        }
+        if (last.stationId() == station) {
+            return new Visit(station, last.fromId(), last.arrivedAt(), train.getRoute());
+        }
+
+        long observed = observedMillis(train);
+        int[] previousRoute = last.route();
+        int previousIndex = indexOf(previousRoute, last.stationId());
+        boolean adjacent = previousIndex != -1 && previousIndex + 1 < previousRoute.length
+                && previousRoute[previousIndex + 1] == station;
+        if (adjacent && last.arrivedAt() > 0) {
+            long elapsed = observed - last.arrivedAt();
+            if (elapsed >= MIN_SEGMENT_MILLIS && elapsed <= MAX_SEGMENT_MILLIS) {
+                segmentMillis.merge(segmentKey(train.getLineNum(), stationDictionary.nameOf(last.stationId()),
+                                stationDictionary.nameOf(station)), (double) elapsed,
+                        (average, sample) -> average + smoothing * (sample - average));
+            }
+        }
+        return new Visit(station, adjacent ? last.stationId() : -1, observed, train.getRoute());
+    }
+
+    /**
+     * 현재 시각 기준 추정 위치. lineNum이 null이면 모든 호선.
+     */
+    public List<TrainPositionResponse> estimate(String lineNum) {
+        Tracks current = tracks;
+        List<Track> selected = lineNum == null ? current.all() : current.byLine().getOrDefault(lineNum, List.of());
+        long now = System.currentTimeMillis();
+        LocalDateTime estimatedAt = LocalDateTime.ofInstant(Instant.ofEpochMilli(now), ZONE);
+        List<TrainPositionResponse> result = new ArrayList<>(selected.size());
+        for (Track track : selected) {
+            result.add(track.at(now, estimatedAt));
+        }
+        return result;
+    }
+
+    private Track toTrack(LiveTrain train, Visit visit) {
+        int[] route = train.getRoute();
+        int currIndex = train.indexOf(train.getCurrentStationId());
+        if (currIndex == -1) {
+            return null;
+        }
+        String lineNum = train.getLineNum();
+        String current = stationDictionary.nameOf(route[currIndex]);
+        String next = currIndex + 1 < route.length ? stationDictionary.nameOf(route[currIndex + 1]) : null;
+        String previous = visit.fromId() != -1 ? stationDictionary.nameOf(visit.fromId()) : null;
+
+        LocalDateTime observed = observedAt(train);
+        long anchor = observedMillis(train);
+
+        // 구간을 모르면 현재역에 머무름 (from = null, 진행률 1)
+        String from = null;
+        String to = current;
+        double start = 1.0;
+        long delay = 0;
+        switch (train.status()) {
+            case ARRIVE, DEPART -> {
+                if (next != null) {
+                    from = current;
+                    to = next;
+                    start = 0;
+                    delay = train.status() == LiveTrain.Status.ARRIVE ? dwellMillis : 0;
+                }
+            }
+            default -> {
+                if (previous != null) {
+                    from = previous;
+                    start = train.status() == LiveTrain.Status.APPROACH ? APPROACH_PROGRESS : 0;
+                }
+            }
+        }
+        long run = from == null ? 0 : segmentMillis(lineNum, from, to);
+        return new Track(train.getTrainNo(), lineNum, train.direction().code(), train.status().code(), from, to,
+                stationCoordinates.of(lineNum, from), stationCoordinates.of(lineNum, to),
+                anchor, start, delay, run, observed);
+    }
+
+    private long segmentMillis(String lineNum, String from, String to) {
+        Double observed = segmentMillis.get(segmentKey(lineNum, from, to));
+        return observed != null ? Math.round(observed) : defaultSegmentMillis;
+    }
+
+    private static String segmentKey(String lineNum, String from, String to) {
+        return lineNum + "|" + from + "|" + to;
+    }
+
+    // 위치 수신 시각 (없으면 갱신 시각)
+    private static LocalDateTime observedAt(LiveTrain train) {
+        return train.recptnDateTime() != null ? train.recptnDateTime() : train.updateDateTime();
+    }
+
+    private static long observedMillis(LiveTrain train) {
+        LocalDateTime observed = observedAt(train);
+        return observed == null ? System.currentTimeMillis() : observed.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private static int indexOf(int[] route, int stationId) {
+        for (int i = 0; i < route.length; i++) {
+            if (route[i] == stationId) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 스냅샷에서 관측한 열차의 역. fromId는 인접한 직전역(모르면 -1), arrivedAt은 현재역에 들어선 시각(모르면 -1),
+     * route는 그때의 경로(다음 관측에서 인접 여부 판단용).
+     */
+    private record Visit(int stationId, int fromId, long arrivedAt, int[] route) {
+    }
+
+    private record Tracks(Map<String, List<Track>> byLine, List<Track> all) {
+    }
+
+    /**
+     * 열차 하나의 추정 상태. 게시 후 변경되지 않습니다.
+     * 진행률 = start + (now - anchor - delay) / run (0 이상이면서 1 이하), run이 0이면 start에 머무름.
+     */
+    private record Track(String trainNo, String lineNum, String upDown, String status, String from, String to,
+                         double[] fromCoordinate, double[] toCoordinate,
+                         long anchorMillis, double start, long delayMillis, long runMillis, LocalDateTime observedAt) {
+
+        TrainPositionResponse at(long now, LocalDateTime estimatedAt) {
+            double progress = start;
+            long moving = now - anchorMillis - delayMillis;
+            if (runMillis > 0 && moving > 0) {
+                progress = Math.min(1.0, start + (double) moving / runMillis);
+            }
+
+            Double latitude = null;
+            Double longitude = null;
+            if (fromCoordinate != null && toCoordinate != null) {
+                latitude = fromCoordinate[0] + (toCoordinate[0] - fromCoordinate[0]) * progress;
+                longitude = fromCoordinate[1] + (toCoordinate[1] - fromCoordinate[1]) * progress;
+            } else if (progress >= 1.0 && toCoordinate != null) {
+                latitude = toCoordinate[0];
+                longitude = toCoordinate[1];
+            }
+            return new TrainPositionResponse(trainNo, lineNum, upDown, status, from, to,
+                    Math.round(progress * 1000) / 1000.0, latitude, longitude, runMillis / 1000,
+                    observedAt, estimatedAt);
+        }
+    }
+}
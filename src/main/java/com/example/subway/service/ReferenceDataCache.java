@@ -0,0 +1,36 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.SubwayData;
+import com.example.subway.domain.SubwayStations;
+import com.example.subway.repository.SubwayDataRepository;
+import com.example.subway.repository.SubwayStationRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * 참조 데이터(SubwayStations, SubwayData)의 Hibernate 2차 캐시/쿼리 캐시 비우기.
+ * 두 테이블은 dataset 스크립트가 Hibernate를 거치지 않고 직접 적재하므로
+ * 캐시가 자동으로 무효화되지 않습니다. 토폴로지를 다시 읽을 때 함께 비웁니다.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCache {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    public ReferenceDataCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    public void evictAll() {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(SubwayStations.class);
+        cache.evictEntityData(SubwayData.class);
+        cache.evictQueryRegion(SubwayStationRepository.QUERY_CACHE_REGION);
+        cache.evictQueryRegion(SubwayDataRepository.QUERY_CACHE_REGION);
+        log.info("[CACHE] 역/노선 참조 데이터 캐시를 비웠습니다.");
+    }
+}
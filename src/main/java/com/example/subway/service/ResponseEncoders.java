@@ -0,0 +1,39 @@
+package com.example.subway.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 응답 인코딩별로 미리 구성해 둔 ObjectMapper.
+ * Spring Boot가 구성한 ObjectMapper(JSON)를 기준으로 Smile/CBOR 매퍼를 같은 설정으로 복사해 만들고,
+ * 서비스들이 각자 ObjectMapper를 만들지 않고 이 인스턴스들을 공유합니다.
+ */
+@Component
+public class ResponseEncoders {
+
+    private final Map<ResponseFormat, ObjectMapper> mappers = new EnumMap<>(ResponseFormat.class);
+
+    public ResponseEncoders(ObjectMapper objectMapper) {
+        mappers.put(ResponseFormat.JSON, objectMapper);
+        mappers.put(ResponseFormat.SMILE, objectMapper.copyWith(new SmileFactory()));
+        mappers.put(ResponseFormat.CBOR, objectMapper.copyWith(new CBORFactory()));
+    }
+
+    public ObjectMapper mapper(ResponseFormat format) {
+        return mappers.get(format);
+    }
+
+    public byte[] encode(ResponseFormat format, Object value) {
+        try {
+            return mappers.get(format).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("응답 직렬화 실패 (" + format + ")", e);
+        }
+    }
+}
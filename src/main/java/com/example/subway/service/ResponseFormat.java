@@ -0,0 +1,20 @@
+package com.example.subway.service;
+
+/**
+ * API 응답 본문 인코딩. 같은 DTO를 Accept 헤더에 따라 JSON 또는 바이너리(Smile, CBOR)로 내보냅니다.
+ */
+public enum ResponseFormat {
+    JSON("application/json"),
+    SMILE("application/x-jackson-smile"),
+    CBOR("application/cbor");
+
+    private final String mediaType;
+
+    ResponseFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.subway.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 역 좌표 (dataset/data.json의 lat/lng).
+ * 역/노선 테이블은 dataset 스크립트가 같은 파일에서 적재하지만 좌표는 DB에 없으므로 시작할 때 파일을 직접 읽습니다.
+ * 호선명은 dataset/2.py와 같은 규칙으로 DB 호선명으로 바꿉니다 (예: 경의중앙선 -> 경의선).
+ */
+@Slf4j
+@Component
+public class StationCoordinates {
+
+    // dataset/2.py의 line_rename_map과 같음
+    private static final Map<String, String> LINE_RENAME = Map.of(
+            "인천1호선", "인천선",
+            "경의중앙선", "경의선",
+            "김포골드라인", "김포도시철도",
+            "용인에버라인", "용인경전철",
+            "GTXA", "GTX-A");
+
+    private final ObjectMapper objectMapper;
+    private final File file;
+
+    // 호선 -> 역 이름 -> {위도, 경도}. 호선에 없는 역은 이름만으로 찾음 (환승역은 호선마다 좌표가 조금씩 다름)
+    private volatile Map<String, Map<String, double[]>> byLine = Map.of();
+    private volatile Map<String, double[]> byName = Map.of();
+
+    public StationCoordinates(ObjectMapper objectMapper,
+                              @Value("${myapp.positions.stations-file:dataset/data.json}") String file) {
+        this.objectMapper = objectMapper;
+        this.file = new File(file);
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!file.exists()) {
+            log.warn("[POSITION] 역 좌표 파일 {}이 없어 추정 위치에 좌표를 넣지 않습니다.", file);
+            return;
+        }
+        Map<String, Map<String, double[]>> lines = new HashMap<>();
+        Map<String, double[]> names = new HashMap<>();
+        try {
+            for (JsonNode line : objectMapper.readTree(file).path("DATA")) {
+                String lineNum = line.path("line").asText();
+                lineNum = LINE_RENAME.getOrDefault(lineNum, lineNum);
+                Map<String, double[]> stations = lines.computeIfAbsent(lineNum, k -> new HashMap<>());
+                for (JsonNode node : line.path("node")) {
+                    for (JsonNode station : node.path("station")) {
+                        if (!station.hasNonNull("lat") || !station.hasNonNull("lng")) {
+                            continue;
+                        }
+                        double[] coordinate = {station.get("lat").asDouble(), station.get("lng").asDouble()};
+                        stations.putIfAbsent(station.path("name").asText(), coordinate);
+                        names.putIfAbsent(station.path("name").asText(), coordinate);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.error("[POSITION] 역 좌표 파일 {} 읽기 실패: {}", file, e.getMessage(), e);
+            return;
+        }
+        byLine = lines;
+        byName = names;
+        log.info("[POSITION] 역 좌표 {}개 역, {}개 호선 읽음", names.size(), lines.size());
+    }
+
+    /**
+     * (호선, 역)의 {위도, 경도}. 모르면 null. 반환 배열은 수정하지 않습니다.
+     */
+    public double[] of(String lineNum, String station) {
+        if (station == null) {
+            return null;
+        }
+        Map<String, double[]> stations = byLine.get(lineNum);
+        double[] coordinate = stations == null ? null : stations.get(station);
+        return coordinate != null ? coordinate : byName.get(station);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.subway.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 역 이름 <-> int ID 사전. ID는 한 번 부여되면 프로세스가 끝날 때까지 바뀌지 않습니다.
+ * 역 이름 수는 노선망 크기로 제한되므로 항목을 지우지 않습니다.
+ * ID -> 이름 배열은 새 이름이 생길 때만 복사해서 교체(copy-on-write)하므로 nameOf는 잠금 없이 읽습니다.
+ */
+@Component
+public class StationDictionary {
+
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    // 교체만 하고 수정하지 않음. ids에 ID가 보이기 전에 그 ID를 담은 배열이 먼저 게시됨
+    private volatile String[] names = new String[0];
+
+    /**
+     * 이름에 대한 ID. 처음 보는 이름이면 새 ID를 부여합니다. null이면 UNKNOWN.
+     */
+    public int intern(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (ids) {
+            return ids.computeIfAbsent(name, k -> {
+                String[] grown = Arrays.copyOf(names, names.length + 1);
+                grown[grown.length - 1] = k;
+                names = grown;
+                return grown.length - 1;
+            });
+        }
+    }
+
+    /**
+     * 이미 등록된 이름의 ID (없으면 UNKNOWN). 조회 경로에서는 새 ID를 만들지 않습니다.
+     */
+    public int idOf(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        Integer id = ids.get(name);
+        return id == null ? UNKNOWN : id;
+    }
+
+    public String nameOf(int id) {
+        String[] current = names;
+        return id >= 0 && id < current.length ? current[id] : null;
+    }
+}
@@ -1,29 +1,46 @@
 package com.example.subway.service;
 
 import com.example.subway.domain.SubwayData;
+import com.example.subway.dto.TopologyStatsResponse;
 import com.example.subway.repository.SubwayDataRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.io.File;
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 public class SubwayGraphService {
 
+    private static final String REASON_NOT_IN_GRAPH = "Start 혹은 End 노드가 그래프에 존재하지 않음";
+    private static final String REASON_UNREACHABLE = "BFS 종료 후 end 노드를 찾지 못함";
+    private static final String REASON_AGAINST_DIRECTION = "진행 방향(upDown)으로는 end 노드에 도달할 수 없음";
+
     private final SubwayDataRepository subwayDataRepository;
+    private final PathFailureDiagnostics pathFailureDiagnostics;
+    private final ReferenceDataCache referenceDataCache;
 
-    // BFS 실패 건을 기록할 JSON 파일 경로
-    private static final String FAILED_BFS_FILE = "bfs_failures.json";
+    // 세대마다 새로 만드는 negative cache의 최대 크기
+    private final int negativeCacheSize;
+    // 경로 정보와 그것으로 계산한 경로 테이블/negative cache. 토폴로지 갱신 시 통째로 교체
+    private volatile Generation generation;
 
-    public SubwayGraphService(SubwayDataRepository subwayDataRepository) {
+    public SubwayGraphService(SubwayDataRepository subwayDataRepository,
+                              PathFailureDiagnostics pathFailureDiagnostics,
+                              ReferenceDataCache referenceDataCache,
+                              @Value("${myapp.pathfinding.negative-cache-size:4096}") int negativeCacheSize) {
         this.subwayDataRepository = subwayDataRepository;
+        this.pathFailureDiagnostics = pathFailureDiagnostics;
+        this.referenceDataCache = referenceDataCache;
+        this.negativeCacheSize = negativeCacheSize;
     }
 
     /**
@@ -64,6 +81,227 @@ public class SubwayGraphService {
         return graph;
     }
 
+    /**
+     * 전 호선의 경로 정보를 호선 단위로 병렬 계산합니다. 이후 경로/정거장 수 조회는 배열 읽기입니다.
+     * 호선/노선종류마다 양방향 경로 정보 1개와 진행 방향(상행/내선, 하행/외선)별 경로 정보 2개를 만듭니다.
+     */
+    public synchronized void precomputeTopologies() {
+        long start = System.nanoTime();
+        Map<String, List<SubwayData>> rowsByKey = new HashMap<>();
+        for (SubwayData data : subwayDataRepository.findAll()) {
+            if (data.getLinenum() == null || data.getFrontStationname() == null || data.getBackStationname() == null) {
+                continue;
+            }
+            boolean express = "Y".equalsIgnoreCase(data.getExpressYn());
+            rowsByKey.computeIfAbsent(graphKey(data.getLinenum(), express), k -> new ArrayList<>()).add(data);
+        }
+
+        Map<String, LineTopology> built = rowsByKey.entrySet().parallelStream()
+                .flatMap(e -> buildLine(e.getKey(), e.getValue()).entrySet().stream())
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        long buildMillis = (System.nanoTime() - start) / 1_000_000;
+
+        int stations = 0;
+        int branches = 0;
+        long footprint = 0;
+        for (LineTopology topology : built.values()) {
+            if (!topology.isDirected()) stations += topology.stationCount();
+            branches += topology.branches().size();
+            footprint += topology.footprintBytes();
+        }
+        TopologyStatsResponse stats = new TopologyStatsResponse(LocalDateTime.now(), buildMillis,
+                ForkJoinPool.commonPool().getParallelism(), built.size(), stations, branches, footprint);
+        // 새 경로 정보와 빈 경로 테이블/negative cache를 한 번에 게시
+        // (이전 세대로 계산한 경로가 새 세대의 캐시에 들어가지 않음)
+        generation = new Generation(Map.copyOf(built), stats, negativeCacheSize);
+        log.info("[TOPOLOGY] {}개 노선 경로 정보 계산 완료: 역 {}개, 종점 간 순서 {}개, {}ms, 약 {} KB",
+                built.size(), stations, branches, buildMillis, footprint / 1024);
+    }
+
+    private static Map<String, LineTopology> buildLine(String key, List<SubwayData> rows) {
+        String lineNum = key.substring(0, key.lastIndexOf('|'));
+        List<String[]> edges = new ArrayList<>(rows.size());
+        for (SubwayData row : rows) {
+            edges.add(new String[]{row.getFrontStationname(), row.getBackStationname()});
+        }
+        LineTopology undirected = LineTopology.build(lineNum, edges);
+
+        Map<String, LineTopology> result = new HashMap<>();
+        result.put(key, undirected);
+        DirectionalEdges.split(rows, undirected).forEach((direction, directedEdges) -> {
+            if (!directedEdges.isEmpty()) {
+                result.put(key + "|" + direction, LineTopology.build(lineNum, directedEdges, true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 애플리케이션 시작 시 경로 정보를 미리 계산합니다. 첫 동기화가 먼저 요청하면 그 시점에 계산됩니다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpTopologies() {
+        generation();
+    }
+
+    /**
+     * 호선/노선종류(급행 여부)의 경로 정보. 연결 정보가 없으면 null.
+     */
+    public LineTopology getTopology(String lineNum, boolean express) {
+        return generation().topology(lineNum, express);
+    }
+
+    /**
+     * 호선/노선종류의 진행 방향(upDown 0: 상행/내선, 1: 하행/외선)별 경로 정보. 없으면 null.
+     */
+    public LineTopology getTopology(String lineNum, boolean express, String upDown) {
+        return generation().topology(lineNum, express, upDown);
+    }
+
+    /**
+     * from -> to 구간이 속한 분기 이름 ("종점-종점", 예: "연천-인천"). 순환 구간만 지나거나 알 수 없으면 null.
+     */
+    public String branchOf(String lineNum, String from, String to) {
+        LineTopology topology = getTopology(lineNum, false);
+        return topology == null ? null : topology.branchName(topology.branchOf(from, to));
+    }
+
+    public TopologyStatsResponse getTopologyStats() {
+        return generation().stats;
+    }
+
+    private Generation generation() {
+        Generation current = generation;
+        if (current == null) {
+            synchronized (this) {
+                if (generation == null) {
+                    precomputeTopologies();
+                }
+                current = generation;
+            }
+        }
+        return current;
+    }
+
+    private static String graphKey(String lineNum, boolean express) {
+        return lineNum + "|" + (express ? "E" : "L");
+    }
+
+    /**
+     * directAt(1:급행, 7:특급)이면 급행 노선으로 운행하는 열차.
+     * 특급 전용 연결 정보는 SubwayData에 없으므로 급행과 같은 그래프를 사용합니다.
+     */
+    public static boolean isExpress(String directAt) {
+        return "1".equals(directAt) || "7".equals(directAt);
+    }
+
+    /**
+     * 열차의 운행 경로(현재역 -> 종착역)를 경로 테이블에서 찾고, 없으면 계산하여 저장합니다.
+     * 경로는 열차의 진행 방향(upDown)을 따르므로 순환선에서 반대쪽으로 돌거나 분기에서 거꾸로 가는 경로가 나오지 않습니다.
+     * 급행/특급 열차는 정차역만 포함되며, 현재역은 정차역이 아니더라도 위치 표시를 위해 맨 앞에 남깁니다.
+     * 이미 실패한 조합은 negative cache로 판정하여 다시 탐색하지 않습니다.
+     * 조회와 계산, 캐시 저장은 모두 호출 시점의 세대 하나로 합니다.
+     * 반환값은 호출자가 수정해도 되는 복사본입니다.
+     */
+    public List<String> findRoute(String lineNum, String upDown, String directAt, String start, String end) {
+        Generation gen = generation();
+        boolean express = isExpress(directAt);
+        String key = graphKey(lineNum, express) + "|" + upDown + "|" + start + "|" + end;
+        List<String> route = gen.routeTable.get(key);
+        if (route != null) {
+            return new ArrayList<>(route);
+        }
+
+        String failedReason = gen.negativeCache.get(key);
+        if (failedReason != null) {
+            pathFailureDiagnostics.record(lineNum, start, end, failedReason, -1);
+            return new ArrayList<>();
+        }
+
+        BfsResult result = express
+                ? expressRoute(gen, lineNum, upDown, start, end)
+                : tableRoute(gen, lineNum, false, upDown, start, end);
+        if (result.path.isEmpty()) {
+            gen.negativeCache.put(key, result.reason);
+            pathFailureDiagnostics.record(lineNum, start, end, result.reason, result.visitedCount);
+            return new ArrayList<>();
+        }
+        gen.routeTable.put(key, List.copyOf(result.path));
+        return new ArrayList<>(result.path);
+    }
+
+    /**
+     * 해당 열차가 station에 정차하는지 여부. 일반 열차이거나 급행 연결 정보가 없는 호선이면 항상 true.
+     */
+    public boolean stopsAt(String lineNum, String directAt, String station) {
+        if (!isExpress(directAt)) {
+            return true;
+        }
+        LineTopology expressTopology = getTopology(lineNum, true);
+        return expressTopology == null || expressTopology.contains(station);
+    }
+
+    private BfsResult expressRoute(Generation gen, String lineNum, String upDown, String start, String end) {
+        LineTopology expressTopology = gen.topology(lineNum, true);
+        if (expressTopology == null) {
+            // 급행 연결 정보가 없는 호선은 일반 경로 사용
+            return tableRoute(gen, lineNum, false, upDown, start, end);
+        }
+        if (expressTopology.contains(start) && expressTopology.contains(end)) {
+            BfsResult result = tableRoute(gen, lineNum, true, upDown, start, end);
+            if (!result.path.isEmpty()) {
+                return result;
+            }
+        }
+        // 현재역이 급행 정차역이 아닌 경우: 일반 경로에서 급행 정차역만 남김
+        BfsResult local = tableRoute(gen, lineNum, false, upDown, start, end);
+        List<String> route = new ArrayList<>();
+        for (int i = 0; i < local.path.size(); i++) {
+            if (i == 0 || expressTopology.contains(local.path.get(i))) {
+                route.add(local.path.get(i));
+            }
+        }
+        return new BfsResult(route, local.reason, local.visitedCount);
+    }
+
+    /**
+     * 미리 계산된 다음 역 행렬로 경로를 읽습니다. 탐색이 없으므로 방문 노드 수는 0으로 기록합니다.
+     * 진행 방향별 경로 정보가 있으면 그 방향으로만 따라가고, 없으면(방향 정보 없는 열차 등) 양방향 최단 경로를 씁니다.
+     * 순환선에서 현재역과 종착역이 같으면 종착역에 도착한 것으로 보고 [현재역]만 반환합니다.
+     */
+    private BfsResult tableRoute(Generation gen, String lineNum, boolean express, String upDown,
+                                 String start, String end) {
+        LineTopology topology = gen.topology(lineNum, express);
+        if (topology == null || !topology.contains(start) || !topology.contains(end)) {
+            return new BfsResult(Collections.emptyList(), REASON_NOT_IN_GRAPH, 0);
+        }
+        LineTopology directed = upDown == null ? null : gen.topology(lineNum, express, upDown);
+        if (directed != null && directed.contains(start) && directed.contains(end)) {
+            List<String> path = directed.route(start, end);
+            if (path.isEmpty()) {
+                return new BfsResult(Collections.emptyList(), REASON_AGAINST_DIRECTION, 0);
+            }
+            return new BfsResult(path, null, 0);
+        }
+        List<String> path = topology.route(start, end);
+        if (path.isEmpty()) {
+            return new BfsResult(Collections.emptyList(), REASON_UNREACHABLE, 0);
+        }
+        return new BfsResult(path, null, 0);
+    }
+
+    /**
+     * 참조 데이터 2차 캐시를 비우고 SubwayData를 다시 읽어 경로 정보를 새로 계산합니다.
+     * 경로 테이블/negative cache는 새 경로 정보와 함께 빈 상태로 교체됩니다.
+     */
+    @Scheduled(fixedDelayString = "${myapp.schedule.topology-refresh}",
+               initialDelayString = "${myapp.schedule.topology-refresh}")
+    public void refreshTopology() {
+        referenceDataCache.evictAll();
+        precomputeTopologies();
+        log.info("[TOPOLOGY] 경로 정보와 경로 테이블 캐시를 새로 교체했습니다.");
+    }
+
     /**
      * BFS로 start에서 end로 가는 경로를 탐색 (호선 정보를 알 수 없을 때 오버로드).
      * 기존 코드를 깨지 않기 위해 남겨둔 메서드입니다.
@@ -75,19 +313,23 @@ public class SubwayGraphService {
 
     /**
      * BFS로 start에서 end로 가는 경로를 탐색 (호선(lineNum) 포함).
-     * 실패 시 "왜 못찾았는지(reason)" + "어디까지 탐색했는지(visited)" + "호선(lineNum)"을
-     * JSON 파일(Pretty Print)로 기록합니다.
+     * 실패 시 (호선, 출발역, 종착역, 사유)별 실패 집계에 반영합니다.
      */
     public List<String> bfsPath(Map<String, List<String>> graph, String start, String end, String lineNum) {
+        BfsResult result = bfs(graph, start, end, lineNum);
+        if (result.path.isEmpty()) {
+            pathFailureDiagnostics.record(lineNum, start, end, result.reason, result.visitedCount);
+        }
+        return result.path;
+    }
+
+    private BfsResult bfs(Map<String, List<String>> graph, String start, String end, String lineNum) {
         log.info("----- BFS START [lineNum={}] from '{}' to '{}' -----", lineNum, start, end);
 
-        // (1) start/end 노드가 그래프에 없는 경우 -> 실패 기록
+        // (1) start/end 노드가 그래프에 없는 경우 -> 실패
         if (!graph.containsKey(start) || !graph.containsKey(end)) {
             log.warn("[BFS] start='{}' 혹은 end='{}'가 lineNum='{}' 그래프에 없습니다.", start, end, lineNum);
-            logFailedBfs(start, end, lineNum,
-                    "Start 혹은 End 노드가 그래프에 존재하지 않음",
-                    Collections.emptySet());
-            return Collections.emptyList();
+            return new BfsResult(Collections.emptyList(), REASON_NOT_IN_GRAPH, 0);
         }
 
         // (2) BFS 준비
@@ -124,13 +366,10 @@ public class SubwayGraphService {
             }
         }
 
-        // (4) BFS 종료 후, end 노드를 찾지 못했으면 실패 기록
+        // (4) BFS 종료 후, end 노드를 찾지 못했으면 실패
         if (!parent.containsKey(end)) {
             log.warn("[BFS] '{}'에서 '{}'로 가는 경로를 찾지 못했습니다. (lineNum={})", start, end, lineNum);
-            logFailedBfs(start, end, lineNum,
-                    "BFS 종료 후 end 노드를 찾지 못함",
-                    visited);
-            return Collections.emptyList();
+            return new BfsResult(Collections.emptyList(), REASON_UNREACHABLE, visited.size());
         }
 
         // (5) 경로 역추적
@@ -143,52 +382,50 @@ public class SubwayGraphService {
         Collections.reverse(path);
 
         log.info("[BFS] '{}' -> '{}' (lineNum={}) 경로: {}", start, end, lineNum, path);
-        return path;
+        return new BfsResult(path, null, visited.size());
     }
 
+    // BFS 결과: 경로(실패 시 빈 리스트), 실패 사유, 방문 노드 수
     /**
-     * BFS 실패 시, JSON 파일(bfs_failures.json)에 기록하는 메서드.
-     * - "start", "end", "lineNum", "reason", "visited", "timestamp" 등을 함께 기록
+     * 한 번 계산한 경로 정보와, 그 경로 정보로만 채우는 경로 테이블/negative cache.
      */
-    private void logFailedBfs(String start,
-                              String end,
-                              String lineNum,
-                              String reason,
-                              Set<String> visited) {
-        // ObjectMapper에 Pretty Print(들여쓰기) 설정
-        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
-
-        List<Map<String, Object>> failedList = new ArrayList<>();
-        File file = new File(FAILED_BFS_FILE);
-
-        // 이미 파일이 있으면 기존 내용을 불러옴
-        if (file.exists()) {
-            try {
-                failedList = mapper.readValue(file, new TypeReference<>() {});
-            } catch (IOException e) {
-                log.error("Error reading {}: {}", FAILED_BFS_FILE, e.getMessage());
-            }
-        }
+    private static final class Generation {
+        private final Map<String, LineTopology> topologies;
+        private final TopologyStatsResponse stats;
+        // (호선, 노선종류, 진행 방향, 출발역, 종착역) -> 경로 테이블
+        private final Map<String, List<String>> routeTable = new ConcurrentHashMap<>();
+        // 경로를 찾지 못한 (호선, 노선종류, 진행 방향, 출발역, 종착역) -> 실패 사유. 크기 제한 LRU
+        private final Map<String, String> negativeCache;
 
-        // 새로운 실패 기록 생성
-        Map<String, Object> record = new HashMap<>();
-        record.put("start", start);
-        record.put("end", end);
-        record.put("lineNum", lineNum);  // 호선 정보
-        record.put("timestamp", LocalDateTime.now().toString());
-        record.put("reason", reason);    // BFS 실패 사유
-        record.put("visited", new ArrayList<>(visited));  // 방문했던 노드 목록
-        record.put("message", "BFS 경로를 찾지 못했습니다.");
+        private Generation(Map<String, LineTopology> topologies, TopologyStatsResponse stats, int negativeCacheSize) {
+            this.topologies = topologies;
+            this.stats = stats;
+            this.negativeCache = Collections.synchronizedMap(new LinkedHashMap<String, String>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > negativeCacheSize;
+                }
+            });
+        }
 
-        failedList.add(record);
+        private LineTopology topology(String lineNum, boolean express) {
+            return topologies.get(graphKey(lineNum, express));
+        }
 
-        // JSON 파일에 다시 기록
-        try {
-            mapper.writeValue(file, failedList);
-            log.info("BFS 실패 기록을 {} 파일에 저장했습니다.", FAILED_BFS_FILE);
-        } catch (IOException e) {
-            log.error("Error writing to {}: {}", FAILED_BFS_FILE, e.getMessage());
+        private LineTopology topology(String lineNum, boolean express, String upDown) {
+            return topologies.get(graphKey(lineNum, express) + "|" + upDown);
         }
     }
 
+    private static final class BfsResult {
+        private final List<String> path;
+        private final String reason;
+        private final int visitedCount;
+
+        private BfsResult(List<String> path, String reason, int visitedCount) {
+            this.path = path;
+            this.reason = reason;
+            this.visitedCount = visitedCount;
+        }
+    }
 }
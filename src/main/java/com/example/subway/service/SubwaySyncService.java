@@ -1,15 +1,24 @@
 package com.example.subway.service;
 
+import com.example.subway.config.DataSourceRoute;
 import com.example.subway.domain.TrainInfo;
+import com.example.subway.history.PositionEvent;
+import com.example.subway.history.TrainHistoryStore;
 import com.example.subway.repository.TrainInfoRepository;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.w3c.dom.*;
 import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -18,7 +27,14 @@ import java.net.URLConnection;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Slf4j
 @Service
@@ -27,222 +43,590 @@ public class SubwaySyncService {
     private final TrainInfoRepository trainInfoRepository;
     private final SubwayGraphService subwayGraphService;
     private final NotificationService notificationService;
-
-    // 최초 API 키
-    private String apiKey = "755455636167793236306850475a51";
-    // API URL 템플릿
-    private static final String SUBWAY_API_URL
-            = "http://swopenAPI.seoul.go.kr/api/subway/%s/xml/realtimePosition/0/100/%s";
+    private final TrainHistoryStore trainHistoryStore;
+    private final HeadwayAnalyticsService headwayAnalyticsService;
+    private final TrainSnapshotService trainSnapshotService;
+    private final LineLeaseService lineLeaseService;
+    private final LineCircuitBreakerService lineCircuitBreakerService;
+    private final NextTrainsService nextTrainsService;
+    private final GtfsRealtimeService gtfsRealtimeService;
+    private final PositionInterpolator positionInterpolator;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter prettyWriter;
+
+    private final long trainTtlMillis;
+    private final int connectTimeoutMillis;
+    private final int readTimeoutMillis;
+    private final long cycleTimeoutMillis;
+
+    // 동기화 파이프라인: fetch -> parse -> resolve -> route -> apply -> notify
+    private final PipelineStage<LineSyncJob> fetchStage;
+    // 제출했지만 apply가 끝나지 않은 호선 (DB 호선명 -> 작업). apply의 finally/오류 처리에서 지움
+    private final Map<String, LineSyncJob> inFlight = new ConcurrentHashMap<>();
+    private final List<PipelineStage<LineSyncJob>> stages;
+    private final Timer cycleTimer;
+
+    // 최초 API 키 (parse 단계 여러 스레드가 교체할 수 있음)
+    private volatile String apiKey = "755455636167793236306850475a51";
+    // API URL 템플릿 (첫 번째 %s: API 키, 두 번째 %s: 호선명)
+    private final String subwayApiUrl;
     // 로그 기록 파일명
     private static final String LOG_FILE = "log.json";
+    // API 최종수신시간(recptnDt) 형식
+    private static final DateTimeFormatter RECPTN_DT_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+    // 역 이름의 소괄호 부분 (예: "서울(경의선)" -> "서울")
+    private static final Pattern PARENTHESES = Pattern.compile("\\(.*?\\)");
 
     public SubwaySyncService(TrainInfoRepository trainInfoRepository,
                              SubwayGraphService subwayGraphService,
-                             NotificationService notificationService) {
+                             NotificationService notificationService,
+                             TrainHistoryStore trainHistoryStore,
+                             HeadwayAnalyticsService headwayAnalyticsService,
+                             TrainSnapshotService trainSnapshotService,
+                             LineLeaseService lineLeaseService,
+                             LineCircuitBreakerService lineCircuitBreakerService,
+                             NextTrainsService nextTrainsService,
+                             GtfsRealtimeService gtfsRealtimeService,
+                             PositionInterpolator positionInterpolator,
+                             ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${myapp.subway.api-url}") String subwayApiUrl,
+                             @Value("${myapp.sync.train-ttl:300000}") long trainTtlMillis,
+                             @Value("${myapp.sync.connect-timeout:5000}") int connectTimeoutMillis,
+                             @Value("${myapp.sync.read-timeout:10000}") int readTimeoutMillis,
+                             @Value("${myapp.sync.pipeline.queue-capacity:32}") int queueCapacity,
+                             @Value("#{${myapp.sync.pipeline.workers:{:}}}") Map<String, Integer> workers,
+                             @Value("#{${myapp.sync.pipeline.batch:{:}}}") Map<String, Integer> batchSizes,
+                             @Value("${myapp.sync.pipeline.cycle-timeout:60000}") long cycleTimeoutMillis) {
+        // 반영이 늦어진 호선은 다음 주기를 기다리는 동안에도 lease를 유지하고 있어야 함
+        if (lineLeaseService.isEnabled() && cycleTimeoutMillis >= lineLeaseService.getLeaseTtlMillis()) {
+            throw new IllegalStateException("cycle-timeout(" + cycleTimeoutMillis + "ms)은 lease-ttl("
+                    + lineLeaseService.getLeaseTtlMillis() + "ms)보다 짧아야 합니다.");
+        }
         this.trainInfoRepository = trainInfoRepository;
         this.subwayGraphService  = subwayGraphService;
         this.notificationService = notificationService;
+        this.trainHistoryStore   = trainHistoryStore;
+        this.headwayAnalyticsService = headwayAnalyticsService;
+        this.trainSnapshotService = trainSnapshotService;
+        this.lineLeaseService = lineLeaseService;
+        this.lineCircuitBreakerService = lineCircuitBreakerService;
+        this.nextTrainsService = nextTrainsService;
+        this.gtfsRealtimeService = gtfsRealtimeService;
+        this.positionInterpolator = positionInterpolator;
+        this.objectMapper = objectMapper;
+        this.prettyWriter = objectMapper.writerWithDefaultPrettyPrinter();
+        this.subwayApiUrl = subwayApiUrl;
+        this.trainTtlMillis = trainTtlMillis;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        this.readTimeoutMillis = readTimeoutMillis;
+        this.cycleTimeoutMillis = cycleTimeoutMillis;
+
+        // 뒤 단계부터 만들어 앞 단계에 연결. 단계별 기본값: 외부 API 대기(fetch)는 넉넉히, DB/파일 기록은 적게
+        // train_info를 읽고 쓰는 resolve/apply 단계는 sync-writer 풀만 사용 (조회 요청과 커넥션을 다투지 않음)
+        PipelineStage<LineSyncJob> notify = new PipelineStage<>("notify", queueCapacity,
+                workers.getOrDefault("notify", 1), batchSizes.getOrDefault("notify", 8),
+                this::notifyStage, (job, e) -> { }, null, meterRegistry);
+        PipelineStage<LineSyncJob> apply = new PipelineStage<>("apply", queueCapacity,
+                workers.getOrDefault("apply", 2), batchSizes.getOrDefault("apply", 1),
+                batch -> DataSourceRoute.SYNC_WRITER.run(() -> applyStage(batch)),
+                (job, e) -> {
+                    // 배치 중간에 예외가 나서 처리되지 못한 호선도 다음 주기에 다시 넣을 수 있도록 정리
+                    job.fail(e);
+                    release(job);
+                }, notify, meterRegistry);
+        PipelineStage<LineSyncJob> route = new PipelineStage<>("route", queueCapacity,
+                workers.getOrDefault("route", 2), batchSizes.getOrDefault("route", 1),
+                this::routeStage, LineSyncJob::fail, apply, meterRegistry);
+        PipelineStage<LineSyncJob> resolve = new PipelineStage<>("resolve", queueCapacity,
+                workers.getOrDefault("resolve", 2), batchSizes.getOrDefault("resolve", 1),
+                batch -> DataSourceRoute.SYNC_WRITER.run(() -> resolveStage(batch)), LineSyncJob::fail, route, meterRegistry);
+        PipelineStage<LineSyncJob> parse = new PipelineStage<>("parse", queueCapacity,
+                workers.getOrDefault("parse", 2), batchSizes.getOrDefault("parse", 1),
+                this::parseStage, LineSyncJob::fail, resolve, meterRegistry);
+        this.fetchStage = new PipelineStage<>("fetch", queueCapacity,
+                workers.getOrDefault("fetch", 4), batchSizes.getOrDefault("fetch", 1),
+                this::fetchStage, LineSyncJob::fail, parse, meterRegistry);
+        this.stages = List.of(fetchStage, parse, resolve, route, apply, notify);
+        this.cycleTimer = Timer.builder("subway.sync.cycle")
+                .description("동기화 주기 하나 (모든 호선 DB 반영 + 스냅샷 게시) 소요 시간")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void startPipeline() {
+        stages.forEach(PipelineStage::start);
+    }
+
+    @PreDestroy
+    public void stopPipeline() {
+        stages.forEach(PipelineStage::stop);
     }
 
     /**
      * 지정된 주기로 각 호선의 열차정보를 동기화합니다.
+     * 호선마다 작업을 파이프라인(fetch -> parse -> resolve -> route -> apply -> notify)에 넣고,
+     * 모든 호선이 apply 단계(DB 반영)를 마치면 스냅샷을 게시합니다. notify 단계(이력/알림/log.json)는 기다리지 않습니다.
      */
     @Scheduled(fixedDelayString = "${myapp.schedule.subway-refresh}")
     public void syncTrains() {
-        Map<String, String> linesToSync = new LinkedHashMap<>();
+        long cycleStart = System.nanoTime();
+        // 다른 노드가 담당하는 호선은 건너뜀 (결과는 공유 DB에서 스냅샷으로 읽음)
+        List<Map.Entry<String, String>> ownedLines = SyncLines.ALL.entrySet().stream()
+                .filter(entry -> lineLeaseService.isOwner(entry.getValue()))
+                .toList();
+        // 지난 주기에 제한 시간을 넘겨 아직 파이프라인에 있는 호선은 다시 넣지 않음 (같은 열차를 두 작업이 동시에 쓰지 않도록)
+        List<Map.Entry<String, String>> lines = ownedLines.stream()
+                .filter(entry -> !isInFlight(entry.getValue()))
+                .toList();
+        if (lines.size() < ownedLines.size()) {
+            log.warn("[SYNC] 이전 주기 작업이 끝나지 않은 호선 {}개는 이번 주기에 건너뜁니다.", ownedLines.size() - lines.size());
+        }
 
-        for (int line = 1; line <= 9; line++) {
-            String lineKey = line + "호선";
-            linesToSync.put(lineKey, lineKey);
+        CountDownLatch applied = new CountDownLatch(lines.size());
+        try {
+            for (Map.Entry<String, String> entry : lines) {
+                String dbLineName = entry.getValue();
+                // 연속 실패로 차단된 호선은 backoff가 끝날 때까지 호출하지 않음 (기존 열차는 TTL까지 유지)
+                boolean skipped = !lineCircuitBreakerService.allowRequest(dbLineName);
+                LineSyncJob job = new LineSyncJob(entry.getKey(), dbLineName, applied, skipped);
+                inFlight.put(dbLineName, job);
+                try {
+                    fetchStage.submit(job);
+                } catch (InterruptedException e) {
+                    inFlight.remove(dbLineName, job);
+                    throw e;
+                }
+            }
+            if (!applied.await(cycleTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("[SYNC] 제한 시간({}ms) 안에 DB 반영이 끝나지 않은 호선 {}개를 기다리지 않고 게시합니다.",
+                        cycleTimeoutMillis, applied.getCount());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
         }
-        linesToSync.put("경강선", "경강선");
-        linesToSync.put("경의중앙선", "경의선");  // API는 "경의중앙선", DB에는 "경의선"으로 저장
-        linesToSync.put("경춘선", "경춘선");
-        linesToSync.put("공항철도", "공항철도");
-        linesToSync.put("서해선", "서해선");
-        linesToSync.put("수인분당선", "수인분당선");
-        linesToSync.put("신분당선", "신분당선");
-        linesToSync.put("신림선", "신림선");
-        linesToSync.put("우이신설선", "우이신설선");
-
-        for (Map.Entry<String, String> entry : linesToSync.entrySet()) {
-            String apiLineName = entry.getKey();
-            String dbLineName  = entry.getValue();
+
+        // 이번 주기의 결과를 새 버전으로 게시하고, 사용자 근무역별 뷰, GTFS-Realtime 피드, 위치 추정 상태를 다시 만듦
+        // (방금 반영한 내용을 복제 지연 없이 읽도록 replica가 아닌 sync-writer 풀에서 읽음)
+        TrainSnapshot snapshot = DataSourceRoute.SYNC_WRITER.get(trainSnapshotService::publish);
+        nextTrainsService.materialize(snapshot);
+        gtfsRealtimeService.publish(snapshot);
+        positionInterpolator.publish(snapshot);
+
+        // 오래 쌓인 이력 버퍼를 청크로 기록
+        trainHistoryStore.flushExpired();
+        cycleTimer.record(System.nanoTime() - cycleStart, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * fetch: API 호출 후 응답 본문을 그대로 읽어 둡니다 (파싱은 다음 단계).
+     */
+    private void fetchStage(List<LineSyncJob> batch) {
+        for (LineSyncJob job : batch) {
+            if (!job.active()) {
+                continue;
+            }
             try {
-                String lineNameEncoded = URLEncoder.encode(apiLineName, "UTF-8");
-                syncLine(lineNameEncoded, dbLineName);
+                String lineNameEncoded = URLEncoder.encode(job.apiLineName, StandardCharsets.UTF_8);
+                String apiUrl = String.format(subwayApiUrl, apiKey, lineNameEncoded);
+                log.info("[SYNC] {}: API 호출 URL = {}", job.lineNum, apiUrl);
+
+                URLConnection connection = new URL(apiUrl).openConnection();
+                connection.setConnectTimeout(connectTimeoutMillis);
+                connection.setReadTimeout(readTimeoutMillis);
+                job.contentType = connection.getContentType();
+                try (InputStream is = connection.getInputStream()) {
+                    job.payload = is.readAllBytes();
+                }
             } catch (Exception e) {
-                log.error("Failed to sync line {}: {}", apiLineName, e.getMessage(), e);
+                job.fail(e);
+                log.error("Failed to sync line {}: {}", job.apiLineName, e.getMessage(), e);
             }
         }
     }
 
     /**
-     * 특정 호선(lineNameEncoded, lineNum)에 대한 열차정보 동기화 및 DB 정리 로직
+     * parse: 응답의 오류 코드를 확인하고 행을 읽습니다. API가 정상 응답했으면 success = true.
      */
-    private void syncLine(String lineNameEncoded, String lineNum) throws Exception {
-        String apiUrl = String.format(SUBWAY_API_URL, apiKey, lineNameEncoded);
-        log.info("[SYNC] {}: API 호출 URL = {}", lineNum, apiUrl);
-
-        URL url = new URL(apiUrl);
-        URLConnection connection = url.openConnection();
-        String contentType = connection.getContentType();
-        InputStream is = connection.getInputStream();
-
-        if (contentType != null && contentType.contains("application/json")) {
-            String jsonResponse = new String(is.readAllBytes(), StandardCharsets.UTF_8);
-            ObjectMapper mapper = new ObjectMapper();
-            Map<String, Object> responseMap = mapper.readValue(jsonResponse, new TypeReference<Map<String, Object>>() {});
+    private void parseStage(List<LineSyncJob> batch) {
+        for (LineSyncJob job : batch) {
+            if (!job.active()) {
+                continue;
+            }
+            try {
+                job.success = parse(job);
+            } catch (Exception e) {
+                job.fail(e);
+                log.error("Failed to sync line {}: {}", job.apiLineName, e.getMessage(), e);
+            }
+        }
+    }
+
+    private boolean parse(LineSyncJob job) throws Exception {
+        String lineNum = job.lineNum;
+        if (job.contentType != null && job.contentType.contains("application/json")) {
+            String jsonResponse = new String(job.payload, StandardCharsets.UTF_8);
+            Map<String, Object> responseMap = objectMapper.readValue(jsonResponse, new TypeReference<Map<String, Object>>() {});
             if ("ERROR-337".equals(responseMap.get("code"))) {
-                if (this.apiKey.equals("755455636167793236306850475a51")) {
-                    this.apiKey = "51434941476779323635637044786e";
-                } else if (this.apiKey.equals("51434941476779323635637044786e")) {
-                    this.apiKey = "4f6b52794467793236325572567469";
-                }
+                rotateApiKey();
                 log.warn("[ERROR] {}: {} (API 키를 새 값으로 교체함)", lineNum, jsonResponse);
-                return;
+                return false;
             }
             log.info("[INFO] {}: JSON 응답 수신: {}", lineNum, jsonResponse);
-            return;
-        } else {
-            Document doc = DocumentBuilderFactory.newInstance()
-                    .newDocumentBuilder().parse(is);
-            doc.getDocumentElement().normalize();
-
-            NodeList codeNodes = doc.getElementsByTagName("code");
-            if (codeNodes != null && codeNodes.getLength() > 0) {
-                String errorCode = codeNodes.item(0).getTextContent();
-                if ("ERROR-337".equals(errorCode)) {
-                    if (this.apiKey.equals("755455636167793236306850475a51")) {
-                        this.apiKey = "51434941476779323635637044786e";
-                    } else if (this.apiKey.equals("51434941476779323635637044786e")) {
-                        this.apiKey = "4f6b52794467793236325572567469";
-                    }
-                    log.warn("[ERROR] {}: 응답 오류 코드 {} 발견 (API 키를 새 값으로 교체함)", lineNum, errorCode);
-                    return;
-                }
+            return true;
+        }
+
+        Document doc = DocumentBuilderFactory.newInstance()
+                .newDocumentBuilder().parse(new ByteArrayInputStream(job.payload));
+        doc.getDocumentElement().normalize();
+
+        NodeList codeNodes = doc.getElementsByTagName("code");
+        if (codeNodes != null && codeNodes.getLength() > 0) {
+            String errorCode = codeNodes.item(0).getTextContent();
+            if ("ERROR-337".equals(errorCode)) {
+                rotateApiKey();
+                log.warn("[ERROR] {}: 응답 오류 코드 {} 발견 (API 키를 새 값으로 교체함)", lineNum, errorCode);
+                return false;
+            }
+            if (errorCode != null && errorCode.startsWith("ERROR")) {
+                log.warn("[ERROR] {}: 응답 오류 코드 {}", lineNum, errorCode);
+                return false;
             }
+        }
+
+        NodeList rowList = doc.getElementsByTagName("row");
+        if (rowList.getLength() == 0) {
+            log.info("[INFO] {}: 열차 정보가 없습니다.", lineNum);
+            return true;
+        }
 
-            NodeList rowList = doc.getElementsByTagName("row");
-            if (rowList.getLength() == 0) {
-                log.info("[INFO] {}: 열차 정보가 없습니다.", lineNum);
-                return;
+        for (int i = 0; i < rowList.getLength(); i++) {
+            Node row = rowList.item(i);
+            if (row.getNodeType() != Node.ELEMENT_NODE) {
+                continue;
             }
+            Element element = (Element) row;
 
-            Map<String, List<String>> graph = subwayGraphService.buildGraph(lineNum, false);
-            Set<String> fetchedTrainNos = new HashSet<>();
+            String trainNo   = getTagValue(element, "trainNo");
+            String currStatn = removeParentheses(getTagValue(element, "statnNm"));
+            String endStatn  = removeParentheses(getTagValue(element, "statnTnm"));
+
+            if (trainNo == null || currStatn == null || endStatn == null) {
+                log.warn("Skipping row due to null values: trainNo={}, currStatn={}, endStatn={}",
+                        trainNo, currStatn, endStatn);
+                continue;
+            }
 
-            for (int i = 0; i < rowList.getLength(); i++) {
-                Node row = rowList.item(i);
-                if (row.getNodeType() != Node.ELEMENT_NODE) {
+            job.rows.add(new LineSyncJob.Row(
+                    getTagValue(element, "subwayId"),
+                    getTagValue(element, "statnId"),
+                    trainNo,
+                    getTagValue(element, "lastRecptnDt"),
+                    getTagValue(element, "recptnDt"),
+                    getTagValue(element, "updnLine"),
+                    getTagValue(element, "statnTid"),
+                    currStatn,
+                    endStatn,
+                    getTagValue(element, "trainSttus"),
+                    getTagValue(element, "directAt"),
+                    getTagValue(element, "lstcarAt")));
+        }
+        return true;
+    }
+
+    private synchronized void rotateApiKey() {
+        if (this.apiKey.equals("755455636167793236306850475a51")) {
+            this.apiKey = "51434941476779323635637044786e";
+        } else if (this.apiKey.equals("51434941476779323635637044786e")) {
+            this.apiKey = "4f6b52794467793236325572567469";
+        }
+    }
+
+    /**
+     * resolve: 호선의 기존 열차를 한 번에 읽어 응답 행과 짝짓고, 응답에 없는 열차(운행 종료)를 골라 둡니다.
+     * 응답에 행이 하나도 없으면 기존 열차를 지우지 않습니다 (TTL로 정리).
+     */
+    private void resolveStage(List<LineSyncJob> batch) {
+        for (LineSyncJob job : batch) {
+            if (!job.active() || job.rows.isEmpty()) {
+                continue;
+            }
+            Map<String, TrainInfo> existing = new HashMap<>();
+            for (TrainInfo t : trainInfoRepository.findByLineNum(job.lineNum)) {
+                existing.put(t.getTrainNo(), t);
+            }
+
+            Set<String> fetchedTrainNos = new HashSet<>();
+            for (LineSyncJob.Row row : job.rows) {
+                if (!fetchedTrainNos.add(row.trainNo())) {
                     continue;
                 }
-                Element element = (Element) row;
-
-                String subwayId      = getTagValue(element, "subwayId");
-                String statnId       = getTagValue(element, "statnId");
-                String trainNo       = getTagValue(element, "trainNo");
-                String lastRecptnDt  = getTagValue(element, "lastRecptnDt");
-                String recptnDt      = getTagValue(element, "recptnDt");
-                String upDown        = getTagValue(element, "updnLine");
-                String statnTid      = getTagValue(element, "statnTid");
-                String rawCurrStatn  = getTagValue(element, "statnNm");
-                String rawEndStatn   = getTagValue(element, "statnTnm");
-                String trainSttus    = getTagValue(element, "trainSttus");
-                String directAt      = getTagValue(element, "directAt");
-                String lstcarAt      = getTagValue(element, "lstcarAt");
-
-                String currStatn = removeParentheses(rawCurrStatn);
-                String endStatn  = removeParentheses(rawEndStatn);
-
-                if (trainNo == null || currStatn == null || endStatn == null) {
-                    log.warn("Skipping row due to null values: trainNo={}, currStatn={}, endStatn={}",
-                            trainNo, currStatn, endStatn);
+                TrainInfo train = existing.get(row.trainNo());
+                if (train == null) {
+                    // 같은 열차번호가 다른 호선으로 남아 있으면 그 열차를 갱신
+                    train = trainInfoRepository.findByTrainNo(row.trainNo()).orElse(null);
+                }
+                if (train == null) {
+                    // --- [새 열차 추가] ---
+                    train = new TrainInfo();
+                    applyRow(train, row, job.lineNum);
+                    job.changes.add(new LineSyncJob.Change(train, true, false, false, true, null, null));
                     continue;
                 }
 
-                fetchedTrainNos.add(trainNo);
+                // --- [기존 열차 업데이트] ---
+                // 위치(현재역/상태)가 바뀐 경우에만 이력에 남기기 위해 이전 값과 비교
+                boolean arrived = !Objects.equals(train.getCurrentStation(), row.currStatn());
+                boolean moved = arrived || !Objects.equals(train.getTrainSttus(), row.trainSttus());
+                boolean routeChanged = !Objects.equals(train.getEndStation(), row.endStatn())
+                        || !Objects.equals(train.getDirectAt(), row.directAt());
+                String previousStation = train.getCurrentStation();
+                applyRow(train, row, job.lineNum);
+
+                List<String> path = fromJsonString(train.getStationsJson());
+                int currIdx = path.indexOf(row.currStatn());
+                // 종착역/급행 여부가 바뀌었거나 경로 밖(급행 통과역 등)에 있거나 경로가 비어 있으면 경로를 다시 구함
+                // (경로 탐색에 실패했던 열차도 토폴로지 갱신 후 다시 시도. 갱신 전까지는 negative cache가 응답)
+                boolean needsRoute = routeChanged || currIdx == -1;
+                job.changes.add(new LineSyncJob.Change(train, false, arrived, moved, needsRoute, previousStation, path));
+            }
 
-                Optional<TrainInfo> optTrain = trainInfoRepository.findByTrainNo(trainNo);
-                TrainInfo train;
-                if (optTrain.isEmpty()) {
-                    // --- [새 열차 추가] ---
-                    train = new TrainInfo();
-                    train.setSubwayId(subwayId);
-                    train.setStatnId(statnId);
-                    train.setTrainNo(trainNo);
-                    train.setLastRecptnDt(lastRecptnDt);
-                    train.setRecptnDt(recptnDt);
-                    train.setUpDown(upDown);
-                    train.setTrainSttus(trainSttus);
-                    train.setDirectAt(directAt);
-                    train.setLstcarAt(lstcarAt);
-                    train.setCurrentStation(currStatn);
-                    train.setStatnTid(statnTid);
-                    train.setEndStation(endStatn);
-                    train.setLineNum(lineNum);
-
-                    List<String> path = subwayGraphService.bfsPath(graph, currStatn, endStatn);
-                    log.debug("[NEW TRAIN] BFS path: {}", path);
-
-                    train.setStationsJson(toJsonString(path));
-                    train.setUpdateTime(LocalDateTime.now());
-                    trainInfoRepository.save(train);
-
-                    log.info("[NEW TRAIN] {} - {} ( {} -> {} )", trainNo, lineNum, currStatn, endStatn);
-                    logTrainEvent("NEW_TRAIN", train);
-
-                    // 막차 알림 체크 (신규 열차)
-                    notificationService.checkAndSendAlerts(train);
-                } else {
-                    // --- [기존 열차 업데이트] ---
-                    train = optTrain.get();
-                    train.setSubwayId(subwayId);
-                    train.setStatnId(statnId);
-                    train.setTrainNo(trainNo);
-                    train.setLastRecptnDt(lastRecptnDt);
-                    train.setRecptnDt(recptnDt);
-                    train.setUpDown(upDown);
-                    train.setTrainSttus(trainSttus);
-                    train.setDirectAt(directAt);
-                    train.setLstcarAt(lstcarAt);
-                    train.setCurrentStation(currStatn);
-                    train.setStatnTid(statnTid);
-                    train.setEndStation(endStatn);
-                    train.setLineNum(lineNum);
-
-                    List<String> path = fromJsonString(train.getStationsJson());
-                    if (path != null && !path.isEmpty()) {
-                        int currIdx = path.indexOf(currStatn);
-                        if (currIdx > 0) {
-                            for (int idx = 0; idx < currIdx; idx++) {
-                                path.set(idx, null);
+            for (TrainInfo t : existing.values()) {
+                if (!fetchedTrainNos.contains(t.getTrainNo())) {
+                    job.removed.add(t);
+                }
+            }
+        }
+    }
+
+    private void applyRow(TrainInfo train, LineSyncJob.Row row, String lineNum) {
+        train.setSubwayId(row.subwayId());
+        train.setStatnId(row.statnId());
+        train.setTrainNo(row.trainNo());
+        train.setLastRecptnDt(row.lastRecptnDt());
+        train.setRecptnDt(row.recptnDt());
+        train.setUpDown(row.upDown());
+        train.setTrainSttus(row.trainSttus());
+        train.setDirectAt(row.directAt());
+        train.setLstcarAt(row.lstcarAt());
+        train.setCurrentStation(row.currStatn());
+        train.setStatnTid(row.statnTid());
+        train.setEndStation(row.endStatn());
+        train.setLineNum(lineNum);
+    }
+
+    /**
+     * route: 새 열차와 경로가 바뀐 열차는 경로를 구하고, 나머지는 기존 경로에서 지나온 역을 잘라냅니다.
+     * 잘라낸(지나온) 역 수는 routeOffset에 더해 두어, 경로 안의 역 번호(GTFS stop_sequence)가 열차가 움직여도 유지되게 합니다.
+     */
+    private void routeStage(List<LineSyncJob> batch) {
+        for (LineSyncJob job : batch) {
+            if (!job.active()) {
+                continue;
+            }
+            for (LineSyncJob.Change change : job.changes) {
+                TrainInfo train = change.train;
+                int offset = train.getRouteOffset() == null ? 0 : train.getRouteOffset();
+                int currIdx = change.path == null ? -1 : change.path.indexOf(train.getCurrentStation());
+                if (change.needsRoute) {
+                    // 새 경로는 현재역부터 시작. 기존 경로에서 현재역까지 온 만큼(모르면 역을 옮겼을 때 한 정거장) 번호를 이어감
+                    if (change.created) {
+                        offset = 0;
+                    } else if (currIdx > 0) {
+                        offset += currIdx;
+                    } else if (currIdx == -1 && change.arrived) {
+                        offset += 1;
+                    }
+                    train.setRouteOffset(offset);
+                    // 급행/특급(directAt 1, 7)은 정차역만 포함된 경로를 사용
+                    change.path = subwayGraphService.findRoute(train.getLineNum(), train.getUpDown(),
+                            train.getDirectAt(), train.getCurrentStation(), train.getEndStation());
+                    log.debug("[ROUTE] {} route: {}", train.getTrainNo(), change.path);
+                    train.setStationsJson(toJsonString(change.path));
+                } else if (!change.path.isEmpty()) {
+                    if (currIdx > 0) {
+                        change.path = new ArrayList<>(change.path.subList(currIdx, change.path.size()));
+                        train.setRouteOffset(offset + currIdx);
+                    }
+                    train.setStationsJson(toJsonString(change.path));
+                }
+                train.setUpdateTime(LocalDateTime.now());
+            }
+        }
+    }
+
+    /**
+     * apply: 호선 단위로 한 번에 저장/삭제하고, 서킷 브레이커에 결과를 기록한 뒤 오래된 열차를 정리합니다.
+     * 호선 작업이 끝나면 실패 여부와 관계없이 in-flight 표시를 지우고 applied를 countDown 합니다.
+     * 제출 후 lease를 잃었으면(heartbeat 실패로 로컬 만료, 다른 노드가 가져감) DB에 쓰지 않고 버립니다.
+     */
+    private void applyStage(List<LineSyncJob> batch) {
+        for (LineSyncJob job : batch) {
+            try {
+                if (!lineLeaseService.isOwner(job.lineNum)) {
+                    job.fail(new IllegalStateException(job.lineNum + " lease 만료"));
+                    log.warn("[LEASE] {}: DB 반영 전에 lease가 만료되어 이번 주기 결과를 버립니다.", job.lineNum);
+                    continue;
+                }
+                try {
+                    if (job.active() && !job.changes.isEmpty()) {
+                        List<TrainInfo> trains = new ArrayList<>(job.changes.size());
+                        for (LineSyncJob.Change change : job.changes) {
+                            trains.add(change.train);
+                        }
+                        trainInfoRepository.saveAll(trains);
+                        for (LineSyncJob.Change change : job.changes) {
+                            TrainInfo train = change.train;
+                            if (change.created) {
+                                log.info("[NEW TRAIN] {} - {} ( {} -> {} ) 분기: {}", train.getTrainNo(), job.lineNum,
+                                        train.getCurrentStation(), train.getEndStation(),
+                                        subwayGraphService.branchOf(job.lineNum, train.getCurrentStation(), train.getEndStation()));
+                            } else {
+                                log.info("[UPDATE TRAIN] {} - {} (현재역: {})", train.getTrainNo(), job.lineNum,
+                                        train.getCurrentStation());
                             }
-                            path.removeIf(Objects::isNull);
+                            job.events.add(new LineSyncJob.Event(change.created ? "NEW_TRAIN" : "UPDATE_TRAIN",
+                                    train, LocalDateTime.now()));
                         }
-                        train.setStationsJson(toJsonString(path));
                     }
-                    train.setUpdateTime(LocalDateTime.now());
-                    trainInfoRepository.save(train);
 
-                    log.info("[UPDATE TRAIN] {} - {} (현재역: {})", trainNo, lineNum, currStatn);
-                    logTrainEvent("UPDATE_TRAIN", train);
+                    // 삭제 이벤트 처리
+                    if (job.active() && !job.removed.isEmpty()) {
+                        trainInfoRepository.deleteAll(job.removed);
+                        for (TrainInfo t : job.removed) {
+                            log.info("[DELETE TRAIN] {} - {} (운행 종료)", t.getTrainNo(), job.lineNum);
+                            job.events.add(new LineSyncJob.Event("DELETE_TRAIN", t, LocalDateTime.now()));
+                        }
+                    }
 
-                    // 막차 알림 체크 (업데이트 열차)
-                    notificationService.checkAndSendAlerts(train);
+                    if (!job.skipped) {
+                        if (job.active()) {
+                            lineCircuitBreakerService.recordSuccess(job.lineNum);
+                        } else {
+                            lineCircuitBreakerService.recordFailure(job.lineNum);
+                        }
+                    }
+                } catch (Exception e) {
+                    job.fail(e);
+                    lineCircuitBreakerService.recordFailure(job.lineNum);
+                    log.error("Failed to sync line {}: {}", job.apiLineName, e.getMessage(), e);
                 }
+
+                try {
+                    evictStaleTrains(job);
+                } catch (Exception e) {
+                    log.error("[EXPIRE TRAIN] {} 정리 실패: {}", job.lineNum, e.getMessage(), e);
+                }
+            } finally {
+                // Error 등으로 배치를 빠져나가도 호선이 in-flight로 남지 않도록
+                release(job);
             }
+        }
+    }
 
-            // 삭제 이벤트 처리
-            List<TrainInfo> existingTrains = trainInfoRepository.findByLineNum(lineNum);
-            for (TrainInfo t : existingTrains) {
-                if (!fetchedTrainNos.contains(t.getTrainNo())) {
-                    trainInfoRepository.delete(t);
-                    log.info("[DELETE TRAIN] {} - {} (운행 종료)", t.getTrainNo(), lineNum);
-                    logTrainEvent("DELETE_TRAIN", t);
+    /**
+     * 호선 작업의 in-flight 표시를 지우고 applied를 countDown 합니다. 작업마다 한 번만 동작합니다.
+     * 다음 주기가 applied를 기다린 뒤 바로 제출할 수 있도록 표시를 먼저 지웁니다.
+     */
+    private void release(LineSyncJob job) {
+        if (job.markReleased()) {
+            inFlight.remove(job.lineNum, job);
+            job.applied.countDown();
+        }
+    }
+
+    /**
+     * 아직 파이프라인에 있는 호선인지. 제출한 주기가 cycle-timeout을 넘겨 포기한 뒤에도 다시 cycle-timeout이 지나도록
+     * 끝나지 않은 작업(스레드 중단, 유실 등)은 만료시켜 호선이 영구히 멈추지 않게 합니다.
+     */
+    private boolean isInFlight(String lineNum) {
+        LineSyncJob job = inFlight.get(lineNum);
+        if (job == null) {
+            return false;
+        }
+        long ageMillis = (System.nanoTime() - job.submittedAt) / 1_000_000;
+        if (ageMillis > 2 * cycleTimeoutMillis && inFlight.remove(lineNum, job)) {
+            log.warn("[SYNC] {}: {}ms 동안 끝나지 않은 작업의 in-flight 표시를 만료시키고 다시 제출합니다.", lineNum, ageMillis);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * notify: 이력 저장, 배차간격 집계, 막차 알림, log.json 기록.
+     * 막차 알림은 위치가 바뀐 열차만 평가합니다. 여러 호선 작업을 묶어 log.json/alert.json은 배치마다 한 번만 다시 씁니다.
+     */
+    private void notifyStage(List<LineSyncJob> batch) {
+        List<LineSyncJob.Event> events = new ArrayList<>();
+        List<NotificationService.Transition> transitions = new ArrayList<>();
+        for (LineSyncJob job : batch) {
+            events.addAll(job.events);
+            if (!job.active()) {
+                continue;
+            }
+            for (LineSyncJob.Change change : job.changes) {
+                TrainInfo train = change.train;
+                if (change.created || change.moved) {
+                    recordHistory(train);
+                    transitions.add(new NotificationService.Transition(train, change.previousStation,
+                            change.previousPath, change.path));
+                }
+                // 새 역에 들어선 경우 배차간격 집계
+                if (change.arrived) {
+                    headwayAnalyticsService.recordArrival(train.getLineNum(), train.getCurrentStation(),
+                            train.getUpDown(), observedAt(train));
                 }
             }
         }
+        // 막차 알림 체크 (위치가 바뀐 열차만)
+        notificationService.onTrainsMoved(transitions);
+        logTrainEvents(events);
+    }
+
+    /**
+     * updateTime이 train-ttl보다 오래된 열차를 삭제합니다.
+     * API 장애나 빈 응답으로 갱신이 멈춘 열차가 멈춘 채로 계속 노출되지 않게 합니다.
+     */
+    private void evictStaleTrains(LineSyncJob job) {
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(trainTtlMillis * 1_000_000);
+        for (TrainInfo t : trainInfoRepository.findByLineNumAndUpdateTimeBefore(job.lineNum, cutoff)) {
+            trainInfoRepository.delete(t);
+            log.info("[EXPIRE TRAIN] {} - {} (마지막 갱신: {})", t.getTrainNo(), job.lineNum, t.getUpdateTime());
+            job.events.add(new LineSyncJob.Event("EXPIRE_TRAIN", t, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * 열차 위치 이벤트를 이력 저장소에 추가. 시각은 API의 최종수신시간(recptnDt)을 우선 사용합니다.
+     */
+    private void recordHistory(TrainInfo train) {
+        trainHistoryStore.append(new PositionEvent(
+                observedAt(train),
+                train.getLineNum(),
+                train.getTrainNo(),
+                train.getCurrentStation(),
+                train.getEndStation(),
+                train.getUpDown(),
+                train.getTrainSttus(),
+                train.getDirectAt(),
+                train.getLstcarAt()));
+    }
+
+    /**
+     * 열차 위치가 관측된 시각(epoch millis). recptnDt를 해석할 수 없으면 현재 시각.
+     */
+    private long observedAt(TrainInfo train) {
+        if (train.getRecptnDt() != null) {
+            try {
+                return LocalDateTime.parse(train.getRecptnDt().trim(), RECPTN_DT_FORMAT)
+                        .atZone(ZONE).toInstant().toEpochMilli();
+            } catch (DateTimeParseException e) {
+                log.debug("recptnDt 파싱 실패: {}", train.getRecptnDt());
+            }
+        }
+        return System.currentTimeMillis();
     }
 
     private String getTagValue(Element element, String tag) {
@@ -283,36 +667,41 @@ public class SubwaySyncService {
         if (input == null) {
             return null;
         }
-        return input.replaceAll("\\(.*?\\)", "").trim();
+        return PARENTHESES.matcher(input).replaceAll("").trim();
     }
 
-    private void logTrainEvent(String action, TrainInfo train) {
-        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private void logTrainEvents(List<LineSyncJob.Event> events) {
+        if (events.isEmpty()) {
+            return;
+        }
         List<Map<String, Object>> logList = new ArrayList<>();
         File file = new File(LOG_FILE);
 
         if (file.exists()) {
             try {
-                logList = mapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {});
+                logList = objectMapper.readValue(file, new TypeReference<List<Map<String, Object>>>() {});
             } catch (IOException e) {
                 log.error("log.json 파일 읽기 실패: {}", e.getMessage(), e);
             }
         }
 
-        Map<String, Object> record = new HashMap<>();
-        record.put("timestamp", LocalDateTime.now().toString());
-        record.put("action", action);
-        record.put("trainNo", train.getTrainNo());
-        record.put("lineNum", train.getLineNum());
-        record.put("currentStation", train.getCurrentStation());
-        record.put("endStation", train.getEndStation());
-        record.put("upDown", train.getUpDown());
-        record.put("express", train.getDirectAt());
-        logList.add(record);
+        for (LineSyncJob.Event event : events) {
+            TrainInfo train = event.train();
+            Map<String, Object> record = new HashMap<>();
+            record.put("timestamp", event.timestamp().toString());
+            record.put("action", event.action());
+            record.put("trainNo", train.getTrainNo());
+            record.put("lineNum", train.getLineNum());
+            record.put("currentStation", train.getCurrentStation());
+            record.put("endStation", train.getEndStation());
+            record.put("upDown", train.getUpDown());
+            record.put("express", train.getDirectAt());
+            logList.add(record);
+        }
 
         try {
-            mapper.writeValue(file, logList);
-            log.info("log.json 파일에 {} 이벤트 기록 완료: {}", action, record);
+            prettyWriter.writeValue(file, logList);
+            log.info("log.json 파일에 이벤트 {}건 기록 완료", events.size());
         } catch (IOException e) {
             log.error("log.json 파일 쓰기 실패: {}", e.getMessage(), e);
         }
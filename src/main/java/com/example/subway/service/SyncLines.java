@@ -0,0 +1,34 @@
+package com.example.subway.service;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 동기화 대상 호선 목록. key: API 호선명, value: DB 호선명
+ */
+public final class SyncLines {
+
+    public static final Map<String, String> ALL;
+
+    static {
+        Map<String, String> lines = new LinkedHashMap<>();
+        for (int line = 1; line <= 9; line++) {
+            String lineKey = line + "호선";
+            lines.put(lineKey, lineKey);
+        }
+        lines.put("경강선", "경강선");
+        lines.put("경의중앙선", "경의선");  // API는 "경의중앙선", DB에는 "경의선"으로 저장
+        lines.put("경춘선", "경춘선");
+        lines.put("공항철도", "공항철도");
+        lines.put("서해선", "서해선");
+        lines.put("수인분당선", "수인분당선");
+        lines.put("신분당선", "신분당선");
+        lines.put("신림선", "신림선");
+        lines.put("우이신설선", "우이신설선");
+        ALL = Collections.unmodifiableMap(lines);
+    }
+
+    private SyncLines() {
+    }
+}
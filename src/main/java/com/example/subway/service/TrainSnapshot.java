@@ -0,0 +1,19 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.LiveTrain;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 동기화 주기 하나가 끝난 시점의 열차 상태. 게시된 이후에는 변경되지 않습니다.
+ */
+@Getter
+@AllArgsConstructor
+public class TrainSnapshot {
+    private final long version;            // 동기화 주기마다 1씩 증가
+    private final LocalDateTime createdAt;
+    private final List<LiveTrain> trains;
+}
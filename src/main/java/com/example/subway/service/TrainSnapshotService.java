@@ -0,0 +1,259 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.LiveTrain;
+import com.example.subway.domain.TrainInfo;
+import com.example.subway.dto.StationTrainResponse;
+import com.example.subway.repository.TrainInfoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 동기화 주기마다 열차 상태 스냅샷을 버전과 함께 게시하고,
+ * 역별 응답을 해당 버전에 대해 한 번만 계산/직렬화/압축하여 재사용합니다.
+ */
+@Slf4j
+@Service
+public class TrainSnapshotService {
+
+    private final TrainInfoRepository trainInfoRepository;
+    private final SubwayGraphService subwayGraphService;
+    private final StationDictionary stationDictionary;
+    private final LiveTrainCodec liveTrainCodec;
+    private final ResponseEncoders responseEncoders;
+    private final ObjectMapper objectMapper;
+    private final int maxCachedStations;
+
+    private volatile Published current = new Published(
+            new TrainSnapshot(0, LocalDateTime.now(), List.of()));
+
+    public TrainSnapshotService(TrainInfoRepository trainInfoRepository,
+                                SubwayGraphService subwayGraphService,
+                                StationDictionary stationDictionary,
+                                LiveTrainCodec liveTrainCodec,
+                                ResponseEncoders responseEncoders,
+                                @Value("${myapp.snapshot.max-cached-stations:2048}") int maxCachedStations) {
+        this.trainInfoRepository = trainInfoRepository;
+        this.subwayGraphService = subwayGraphService;
+        this.stationDictionary = stationDictionary;
+        this.liveTrainCodec = liveTrainCodec;
+        this.responseEncoders = responseEncoders;
+        this.objectMapper = responseEncoders.mapper(ResponseFormat.JSON);
+        this.maxCachedStations = maxCachedStations;
+    }
+
+    /**
+     * DB의 현재 열차 상태로 새 버전의 스냅샷을 게시합니다. 동기화 주기가 끝날 때 호출됩니다.
+     * 엔티티는 여기서 LiveTrain으로 변환되고, 같은 경로를 가진 열차는 경로 배열을 공유합니다.
+     */
+    public TrainSnapshot publish() {
+        List<LiveTrain> trains = new ArrayList<>();
+        Map<LiveTrainCodec.RouteKey, int[]> routePool = new HashMap<>();
+        for (TrainInfo info : trainInfoRepository.findAll()) {
+            List<String> route = parseRoute(info.getStationsJson());
+            if (route != null) {
+                trains.add(liveTrainCodec.fromEntity(info, route, routePool));
+            }
+        }
+        TrainSnapshot snapshot = new TrainSnapshot(current.snapshot.getVersion() + 1, LocalDateTime.now(),
+                Collections.unmodifiableList(trains));
+        current = new Published(snapshot);
+        log.info("[SNAPSHOT] version {} 게시 (열차 {}대, 공유 경로 {}개)",
+                snapshot.getVersion(), trains.size(), routePool.size());
+        return snapshot;
+    }
+
+    public TrainSnapshot getSnapshot() {
+        return current.snapshot;
+    }
+
+    /**
+     * 현재 버전의 ETag. 응답 본문은 버전이 바뀔 때만 달라집니다.
+     */
+    public String currentETag() {
+        return ETags.of(current.snapshot.getVersion());
+    }
+
+    /**
+     * 현재 버전에서 stationName을 지나는 열차 목록의 직렬화된 응답.
+     */
+    public CachedResponse getStationResponse(String stationName) {
+        Published published = current;
+        CachedResponse cached = published.stationResponses.get(stationName);
+        if (cached != null) {
+            return cached;
+        }
+        CachedResponse response = encode(published.snapshot.getVersion(),
+                computeStationTrains(published.snapshot, stationName));
+        // 임의의 역 이름으로 캐시가 끝없이 커지지 않도록 상한을 둠
+        if (published.stationResponses.size() < maxCachedStations) {
+            published.stationResponses.putIfAbsent(stationName, response);
+        }
+        return response;
+    }
+
+    /**
+     * 스냅샷에서 stationName을 앞으로 지나갈 열차를 남은 정거장 수 오름차순으로 반환합니다.
+     */
+    public List<StationTrainResponse> computeStationTrains(TrainSnapshot snapshot, String stationName) {
+        return computeStationTrains(snapshot, List.of(stationName), null, null)
+                .getOrDefault(stationName, new ArrayList<>());
+    }
+
+    /**
+     * 여러 역에 대해 같은 스냅샷에서 열차 목록을 한 번의 열차 순회로 계산합니다.
+     * lineNum/upDown이 주어지면 해당 호선/방향 열차만 포함합니다.
+     * 반환 맵은 요청한 역 순서(중복 제거)를 따르고, 알 수 없는 역은 빈 목록입니다.
+     */
+    public Map<String, List<StationTrainResponse>> computeStationTrains(TrainSnapshot snapshot,
+                                                                        List<String> stationNames,
+                                                                        String lineNum, String upDown) {
+        Map<String, List<StationTrainResponse>> result = new LinkedHashMap<>();
+        Map<Integer, List<StationTrainResponse>> byStationId = new HashMap<>();
+        for (String stationName : stationNames) {
+            List<StationTrainResponse> trains = result.computeIfAbsent(stationName, k -> new ArrayList<>());
+            int stationId = stationDictionary.idOf(stationName);
+            if (stationId != StationDictionary.UNKNOWN) {
+                byStationId.put(stationId, trains);
+            }
+        }
+        if (byStationId.isEmpty()) {
+            return result;
+        }
+
+        for (LiveTrain train : snapshot.getTrains()) {
+            if (lineNum != null && !lineNum.equals(train.getLineNum())) {
+                continue;
+            }
+            if (upDown != null && !upDown.equals(train.direction().code())) {
+                continue;
+            }
+
+            // 현재역의 인덱스 확인
+            int currIndex = train.indexOf(train.getCurrentStationId());
+            if (currIndex == -1) {
+                continue;
+            }
+
+            // 남은 경로에서 요청받은 역을 찾음 (순환 경로에서 다시 나오는 역은 처음 위치 기준)
+            int[] route = train.getRoute();
+            for (int i = currIndex; i < route.length; i++) {
+                List<StationTrainResponse> trains = byStationId.get(route[i]);
+                if (trains == null || train.indexOf(route[i]) != i) {
+                    continue;
+                }
+                int remainingStations = i - currIndex;
+                String stationName = stationDictionary.nameOf(route[i]);
+
+                // 급행 열차가 정차하지 않고 통과 중인 역은 제외
+                String directAt = train.serviceType().code();
+                if (remainingStations == 0
+                        && !subwayGraphService.stopsAt(train.getLineNum(), directAt, stationName)) {
+                    continue;
+                }
+                trains.add(toResponse(snapshot, train, remainingStations));
+            }
+        }
+
+        // 남은 정거장 수 기준 오름차순 정렬
+        for (List<StationTrainResponse> trains : result.values()) {
+            trains.sort(Comparator.comparingInt(StationTrainResponse::getRemainingStations));
+        }
+        return result;
+    }
+
+    /**
+     * 여러 역 조회 결과를 format 인코딩으로 역 단위로 바로 써 내려갑니다. 전체 본문을 메모리에 만들지 않습니다.
+     * {"version":..,"createdAt":"..","stations":[{"stationName":"..","trains":[...]}, ...]}
+     */
+    public void writeStationTrains(TrainSnapshot snapshot, Map<String, List<StationTrainResponse>> trainsByStation,
+                                   ResponseFormat format, OutputStream out) throws IOException {
+        ObjectMapper mapper = responseEncoders.mapper(format);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+            // 응답 스트림은 컨테이너가 닫음
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartObject();
+            generator.writeNumberField("version", snapshot.getVersion());
+            generator.writeStringField("createdAt", snapshot.getCreatedAt().toString());
+            generator.writeArrayFieldStart("stations");
+            for (Map.Entry<String, List<StationTrainResponse>> entry : trainsByStation.entrySet()) {
+                generator.writeStartObject();
+                generator.writeStringField("stationName", entry.getKey());
+                generator.writeFieldName("trains");
+                mapper.writeValue(generator, entry.getValue());
+                generator.writeEndObject();
+                generator.flush();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * 여러 역 조회의 ETag. 같은 버전이라도 역 목록/필터가 다르면 본문이 다르므로 요청 내용을 포함합니다.
+     */
+    public String stationBatchETag(long version, List<String> stationNames, String lineNum, String upDown) {
+        List<Object> parts = new ArrayList<>(stationNames.size() + 2);
+        parts.add(lineNum);
+        parts.add(upDown);
+        parts.addAll(stationNames);
+        return ETags.of(version, parts.toArray());
+    }
+
+    private StationTrainResponse toResponse(TrainSnapshot snapshot, LiveTrain train, int remainingStations) {
+        // API 장애로 갱신이 멈춘 호선은 마지막 정상 데이터를 그대로 내보내되 경과 시간을 함께 알림
+        LocalDateTime updateTime = train.updateDateTime();
+        long dataAgeSeconds = updateTime == null ? 0
+                : Math.max(0, Duration.between(updateTime, snapshot.getCreatedAt()).getSeconds());
+
+        return new StationTrainResponse(
+                train.getTrainNo(),
+                train.direction().code(),
+                train.isLastTrain(),
+                stationDictionary.nameOf(train.getCurrentStationId()),
+                stationDictionary.nameOf(train.getEndStationId()),
+                remainingStations,
+                train.getLineNum(),
+                dataAgeSeconds
+        );
+    }
+
+    private CachedResponse encode(long version, Object value) {
+        return CachedResponse.of(ETags.of(version), value, responseEncoders);
+    }
+
+    /**
+     * JSON 문자열을 List<String>으로 변환하는 헬퍼 메서드
+     */
+    private List<String> parseRoute(String json) {
+        if (json == null || json.isEmpty()) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<List<String>>() {});
+        } catch (IOException e) {
+            log.error("Failed to parse JSON string: {}", json, e);
+            return null;
+        }
+    }
+
+    // 게시된 스냅샷과 그 버전에 대한 역별 응답 캐시
+    private static final class Published {
+        private final TrainSnapshot snapshot;
+        private final Map<String, CachedResponse> stationResponses = new ConcurrentHashMap<>();
+
+        private Published(TrainSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import com.example.subway.repository.UserRepository;
 import com.example.subway.repository.SubwayStationRepository;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 
@@ -15,16 +16,21 @@ public class UserService {
     private final UserRepository userRepository;
     private final SubwayStationRepository subwayStationRepository;
     private final PasswordEncoder passwordEncoder;
+    private final NotificationService notificationService;
 
     public UserService(UserRepository userRepository,
                        SubwayStationRepository subwayStationRepository,
-                       PasswordEncoder passwordEncoder) {
+                       PasswordEncoder passwordEncoder,
+                       NotificationService notificationService) {
         this.userRepository = userRepository;
         this.subwayStationRepository = subwayStationRepository;
         this.passwordEncoder = passwordEncoder;
+        this.notificationService = notificationService;
     }
 
     // 회원가입 처리: 입력받은 근무역이 subway_stations 테이블에 존재하는지 확인
+    // (쓰기 트랜잭션이므로 중복 아이디 확인도 replica가 아닌 primary에서 함)
+    @Transactional
     public User registerUser(UserRegistrationRequest request) {
         // existsByStationname() 메서드를 사용하여 역 존재 여부를 확인
         if (!subwayStationRepository.existsByStationname(request.getWorkStation())) {
@@ -39,7 +45,9 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(request.getPassword()));
         user.setWorkStation(request.getWorkStation());
         user.setAlertThreshold(request.getAlertThreshold());
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        notificationService.invalidateSubscriptions();
+        return saved;
     }
 
     // 로그인 인증 (아이디/비밀번호 확인)
@@ -52,6 +60,7 @@ public class UserService {
     }
 
     // 프로필(근무역, 알림 정거장 수) 업데이트: 변경 시에도 근무역의 존재 여부를 검사
+    @Transactional
     public User updateUserProfile(Long userId, String workStation, int alertThreshold) {
         if (!subwayStationRepository.existsByStationname(workStation)) {
             throw new RuntimeException("입력하신 근무역이 존재하지 않습니다.");
@@ -60,6 +69,8 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         user.setWorkStation(workStation);
         user.setAlertThreshold(alertThreshold);
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        notificationService.invalidateSubscriptions();
+        return saved;
     }
 }
@@ -0,0 +1,93 @@
+package com.example.subway.history;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 청크 포맷 인코딩 -> 스캔 왕복 확인.
+ */
+class ColumnChunkTest {
+
+    private static final long T0 = 1_738_900_000_000L;
+
+    private static final List<PositionEvent> EVENTS = List.of(
+            new PositionEvent(T0, "2호선", "2001", "강남", "성수", "0", "1", "0", "0"),
+            new PositionEvent(T0 + 30_000, "2호선", "2002", "역삼", "성수", "1", "2", "1", "1"),
+            // 시각이 앞으로 돌아가는 이벤트 (zigzag delta)
+            new PositionEvent(T0 - 5_000, "2호선", "2001", "역삼", "성수", "0", "3", "7", "0"),
+            new PositionEvent(T0 + 90_000, "2호선", "2003", "선릉", "까치산", "1", "0", "0", "1"));
+
+    @Test
+    void roundTripKeepsEveryField() {
+        List<PositionEvent> out = scanAll(ColumnChunk.encode(EVENTS), all());
+
+        assertEquals(EVENTS.size(), out.size());
+        for (int i = 0; i < EVENTS.size(); i++) {
+            assertEquals(fields(EVENTS.get(i)), fields(out.get(i)));
+        }
+    }
+
+    @Test
+    void filtersByTimeStationAndTrain() {
+        byte[] chunk = ColumnChunk.encode(EVENTS);
+
+        assertEquals(List.of(T0, T0 + 30_000), timestamps(scanAll(chunk,
+                new HistoryQuery(T0, T0 + 60_000, "2호선", null, null, 100))));
+        assertEquals(List.of(T0 + 30_000, T0 - 5_000), timestamps(scanAll(chunk,
+                new HistoryQuery(0, Long.MAX_VALUE, "2호선", "역삼", null, 100))));
+        assertEquals(List.of(T0, T0 - 5_000), timestamps(scanAll(chunk,
+                new HistoryQuery(0, Long.MAX_VALUE, "2호선", null, "2001", 100))));
+        // 청크 시간 범위 밖이거나 사전에 없는 역이면 컬럼을 풀지 않고 건너뛰고 다음 청크 위치로 이동
+        ByteBuffer buf = ByteBuffer.wrap(chunk);
+        List<PositionEvent> out = new ArrayList<>();
+        assertTrue(ColumnChunk.scan(buf, "2호선", new HistoryQuery(0, Long.MAX_VALUE, "2호선", "시청", null, 100), out));
+        assertTrue(out.isEmpty());
+        assertFalse(buf.hasRemaining());
+    }
+
+    @Test
+    void scansAppendedChunksAndStopsAtTruncatedTail() {
+        byte[] first = ColumnChunk.encode(EVENTS.subList(0, 2));
+        byte[] second = ColumnChunk.encode(EVENTS.subList(2, 4));
+        byte[] file = new byte[first.length + second.length - 3];
+        System.arraycopy(first, 0, file, 0, first.length);
+        System.arraycopy(second, 0, file, first.length, second.length - 3);
+
+        ByteBuffer buf = ByteBuffer.wrap(file);
+        List<PositionEvent> out = new ArrayList<>();
+        assertTrue(ColumnChunk.scan(buf, "2호선", all(), out));
+        // 기록 중 잘린 마지막 청크
+        assertFalse(ColumnChunk.scan(buf, "2호선", all(), out));
+        assertEquals(List.of(T0, T0 + 30_000), timestamps(out));
+    }
+
+    private static HistoryQuery all() {
+        return new HistoryQuery(0, Long.MAX_VALUE, "2호선", null, null, 100);
+    }
+
+    private static List<PositionEvent> scanAll(byte[] chunk, HistoryQuery query) {
+        ByteBuffer buf = ByteBuffer.wrap(chunk);
+        List<PositionEvent> out = new ArrayList<>();
+        while (buf.hasRemaining()) {
+            assertTrue(ColumnChunk.scan(buf, "2호선", query, out));
+        }
+        return out;
+    }
+
+    private static List<Long> timestamps(List<PositionEvent> events) {
+        return events.stream().map(PositionEvent::getTimestamp).toList();
+    }
+
+    private static List<Object> fields(PositionEvent e) {
+        return Arrays.asList(e.getTimestamp(), e.getLineNum(), e.getTrainNo(), e.getStationName(), e.getEndStation(),
+                e.getUpDown(), e.getTrainSttus(), e.getDirectAt(), e.getLstcarAt());
+    }
+}
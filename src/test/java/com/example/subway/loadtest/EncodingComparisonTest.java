@@ -0,0 +1,135 @@
+package com.example.subway.loadtest;
+
+import com.example.subway.dto.StationTrainResponse;
+import com.example.subway.service.ResponseEncoders;
+import com.example.subway.service.ResponseFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 응답 인코딩(JSON, Smile, CBOR) 비교. 실제 노선 데이터로 만든 역 응답(List<StationTrainResponse>)과
+ * 여러 역 일괄 응답에 대해 인코딩별 크기, 직렬화/역직렬화 처리량을 측정합니다.
+ * 서버를 띄우지 않고 애플리케이션이 쓰는 ResponseEncoders를 그대로 사용합니다.
+ *
+ * ./gradlew loadTest --tests '*EncodingComparisonTest' 로 실행하며 설정(시스템 프로퍼티):
+ * - loadtest.encoding.iterations   인코딩별 측정 반복 수 (기본 20000)
+ *
+ * 결과는 build/loadtest/encodings-{sha}-{시각}.json 에 저장됩니다.
+ */
+@Tag("load")
+class EncodingComparisonTest {
+
+    private static final Path REPORT_DIR = Paths.get("build", "loadtest");
+    private static final int TRAINS_PER_STATION = 8;
+    private static final int BATCH_STATIONS = 50;
+
+    @Test
+    void compareEncodings() throws IOException {
+        int iterations = Integer.getInteger("loadtest.encoding.iterations", 20_000);
+        ObjectMapper objectMapper = new ObjectMapper();
+        ResponseEncoders encoders = new ResponseEncoders(objectMapper);
+
+        Map<String, List<StationTrainResponse>> byStation = sampleResponses(SubwayLoadTest.fixture());
+        List<StationTrainResponse> single = byStation.values().iterator().next();
+        Map<String, List<StationTrainResponse>> batch = new LinkedHashMap<>();
+        for (Map.Entry<String, List<StationTrainResponse>> entry : byStation.entrySet()) {
+            if (batch.size() == BATCH_STATIONS) break;
+            batch.put(entry.getKey(), entry.getValue());
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("gitSha", System.getProperty("loadtest.gitSha", "unknown"));
+        report.put("timestamp", LocalDateTime.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("iterations", iterations);
+        report.put("station", measure(encoders, single, iterations));
+        report.put("batch" + batch.size(), measure(encoders, batch, iterations / 10));
+
+        Files.createDirectories(REPORT_DIR);
+        Path file = REPORT_DIR.resolve("encodings-" + report.get("gitSha") + "-"
+                + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+        System.out.println("[LOADTEST] 인코딩 비교 결과: " + file.toAbsolutePath());
+        System.out.println(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+    }
+
+    private static Map<String, Object> measure(ResponseEncoders encoders, Object value, int iterations)
+            throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (ResponseFormat format : ResponseFormat.values()) {
+            ObjectMapper mapper = encoders.mapper(format);
+            byte[] body = encoders.encode(format, value);
+            // 같은 내용으로 다시 읽히는지 확인
+            assertTrue(mapper.readTree(body).equals(encoders.mapper(ResponseFormat.JSON)
+                    .readTree(encoders.encode(ResponseFormat.JSON, value))), format + " 왕복 결과가 JSON과 다름");
+
+            // 워밍업
+            for (int i = 0; i < iterations / 4; i++) {
+                mapper.readTree(mapper.writeValueAsBytes(value));
+            }
+            long start = System.nanoTime();
+            long sink = 0;
+            for (int i = 0; i < iterations; i++) {
+                sink += mapper.writeValueAsBytes(value).length;
+            }
+            long encodeNanos = System.nanoTime() - start;
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += mapper.readTree(body).size();
+            }
+            long decodeNanos = System.nanoTime() - start;
+            assertTrue(sink > 0);
+
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("bytes", body.length);
+            entry.put("gzipBytes", gzipSize(body));
+            entry.put("encodePerSec", Math.round(iterations * 1e9 / encodeNanos));
+            entry.put("decodePerSec", Math.round(iterations * 1e9 / decodeNanos));
+            result.put(format.name().toLowerCase(), entry);
+        }
+        return result;
+    }
+
+    /**
+     * 노선 순서대로 역마다 앞쪽 정거장에서 다가오는 열차 TRAINS_PER_STATION대를 둔 응답을 만듭니다.
+     */
+    private static Map<String, List<StationTrainResponse>> sampleResponses(TopologyFixture fixture) {
+        Map<String, List<StationTrainResponse>> byStation = new LinkedHashMap<>();
+        int trainNo = 1000;
+        for (Map.Entry<String, List<String>> corridor : fixture.corridors().entrySet()) {
+            List<String> stations = corridor.getValue();
+            for (int i = TRAINS_PER_STATION; i < stations.size(); i++) {
+                List<StationTrainResponse> trains = new ArrayList<>();
+                for (int k = 0; k < TRAINS_PER_STATION; k++) {
+                    trains.add(new StationTrainResponse(String.valueOf(trainNo++), k % 2 == 0 ? "0" : "1",
+                            k == TRAINS_PER_STATION - 1, stations.get(i - k), stations.get(stations.size() - 1),
+                            k, corridor.getKey(), k * 7L));
+                }
+                byStation.putIfAbsent(stations.get(i), trains);
+            }
+        }
+        return byStation;
+    }
+
+    private static int gzipSize(byte[] body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(body);
+        }
+        return out.size();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.subway.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 요청 하나당 두 가지 지연시간을 기록합니다 (단위: 마이크로초).
+ * - service: 실제로 요청을 보낸 시각부터 응답 완료까지
+ * - corrected: 부하 생성기가 보내려고 "예정했던" 시각부터 응답 완료까지 (coordinated omission 보정)
+ * 서버가 밀려서 생성기까지 늦어지면 service 값은 좋아 보이지만 corrected 값에는 대기 시간이 그대로 드러납니다.
+ */
+final class LatencyRecorder {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private long[] service = new long[1024];
+    private long[] corrected = new long[1024];
+    private int count;
+    private long errors;
+
+    synchronized void record(long serviceMicros, long correctedMicros) {
+        if (count == service.length) {
+            service = Arrays.copyOf(service, count * 2);
+            corrected = Arrays.copyOf(corrected, count * 2);
+        }
+        service[count] = serviceMicros;
+        corrected[count] = correctedMicros;
+        count++;
+    }
+
+    synchronized void recordError() {
+        errors++;
+    }
+
+    synchronized int count() {
+        return count;
+    }
+
+    synchronized Map<String, Object> summary(double measuredSeconds) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("count", count);
+        result.put("errors", errors);
+        result.put("throughputPerSec", round(count / measuredSeconds));
+        result.put("serviceMillis", percentiles(Arrays.copyOf(service, count)));
+        result.put("correctedMillis", percentiles(Arrays.copyOf(corrected, count)));
+        return result;
+    }
+
+    private static Map<String, Object> percentiles(long[] values) {
+        Arrays.sort(values);
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            result.put("p" + (p == Math.floor(p) ? String.valueOf((int) p) : String.valueOf(p)), millis(at(values, p)));
+        }
+        result.put("max", millis(values.length == 0 ? 0 : values[values.length - 1]));
+        return result;
+    }
+
+    // nearest-rank 방식
+    private static long at(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.subway.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 고정 도착률(open-loop) 부하 생성기.
+ * i번째 요청의 예정 시각은 start + i / rate 로 미리 정해지고, 앞선 요청의 응답을 기다리지 않고 비동기로 보냅니다.
+ * 워밍업 구간에 예정된 요청은 보내기는 하되 기록하지 않습니다.
+ */
+final class LoadGenerator {
+
+    /** 트래픽 한 종류. 요청 빌더와 성공으로 볼 상태 코드를 가짐 */
+    record Operation(String name, int weight, RequestFactory factory, Set<Integer> okStatuses) {
+    }
+
+    @FunctionalInterface
+    interface RequestFactory {
+        HttpRequest create(Random random);
+    }
+
+    private final HttpClient client;
+    private final ExecutorService executor;
+    private final List<Operation> operations;
+    private final int totalWeight;
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+
+    LoadGenerator(List<Operation> operations) {
+        this.executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.operations = operations.stream().filter(op -> op.weight() > 0).toList();
+        this.totalWeight = this.operations.stream().mapToInt(Operation::weight).sum();
+        for (Operation op : this.operations) {
+            recorders.put(op.name(), new LatencyRecorder());
+        }
+    }
+
+    /**
+     * rate(요청/초)로 warmup + duration 동안 요청을 보내고, 마지막 요청의 응답까지 기다립니다.
+     */
+    Map<String, LatencyRecorder> run(double rate, Duration warmup, Duration duration, long seed) {
+        Random random = new Random(seed);
+        long intervalNanos = (long) (1_000_000_000L / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+
+        for (long i = 0; ; i++) {
+            long intendedStart = start + i * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            Operation op = pick(random);
+            HttpRequest request = op.factory().create(random);
+            boolean measured = intendedStart >= measureFrom;
+            long sentAt = System.nanoTime();
+            CompletableFuture<?> future = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long completedAt = System.nanoTime();
+                        if (!measured) {
+                            return;
+                        }
+                        LatencyRecorder recorder = recorders.get(op.name());
+                        if (error != null || !op.okStatuses().contains(response.statusCode())) {
+                            recorder.recordError();
+                        } else {
+                            recorder.record((completedAt - sentAt) / 1000, (completedAt - intendedStart) / 1000);
+                        }
+                    });
+            inFlight.add(future);
+            if (inFlight.size() >= 4096) {
+                inFlight.removeIf(CompletableFuture::isDone);
+            }
+        }
+
+        CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0]))
+                .exceptionally(e -> null)
+                .join();
+        return recorders;
+    }
+
+    void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private Operation pick(Random random) {
+        int r = random.nextInt(totalWeight);
+        for (Operation op : operations) {
+            r -= op.weight();
+            if (r < 0) {
+                return op;
+            }
+        }
+        return operations.get(operations.size() - 1);
+    }
+
+    /**
+     * "station=60,next=10,login=15,register=5,profile=10" 형식의 트래픽 비율을 읽습니다.
+     */
+    static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split("=");
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("잘못된 loadtest.mix 항목: " + part);
+            }
+            weights.put(kv[0].trim(), Integer.parseInt(kv[1].trim()));
+        }
+        return weights;
+    }
+
+    static URI uri(String base, String path) {
+        return URI.create(base + path);
+    }
+}
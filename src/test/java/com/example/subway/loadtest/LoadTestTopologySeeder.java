@@ -0,0 +1,69 @@
+package com.example.subway.loadtest;
+
+import com.example.subway.domain.SubwayData;
+import com.example.subway.domain.SubwayStations;
+import com.example.subway.repository.SubwayDataRepository;
+import com.example.subway.repository.SubwayStationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.test.context.TestConfiguration;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 빈 테스트 DB에 dataset/data.json 의 노선/역 데이터를 넣습니다.
+ * 컨텍스트 초기화 중(@PostConstruct)에 실행되므로 첫 동기화 스케줄보다 먼저 끝납니다.
+ */
+@Slf4j
+@TestConfiguration
+class LoadTestTopologySeeder {
+
+    private final SubwayDataRepository subwayDataRepository;
+    private final SubwayStationRepository subwayStationRepository;
+
+    LoadTestTopologySeeder(SubwayDataRepository subwayDataRepository,
+                           SubwayStationRepository subwayStationRepository) {
+        this.subwayDataRepository = subwayDataRepository;
+        this.subwayStationRepository = subwayStationRepository;
+    }
+
+    @PostConstruct
+    void seed() throws IOException {
+        TopologyFixture fixture = SubwayLoadTest.fixture();
+
+        List<SubwayData> edges = new ArrayList<>();
+        for (TopologyFixture.Edge edge : fixture.edges()) {
+            // dataset/2.py 와 같이 양방향으로 저장
+            edges.add(edge(edge.lineNum(), edge.front(), edge.back()));
+            edges.add(edge(edge.lineNum(), edge.back(), edge.front()));
+        }
+        subwayDataRepository.saveAll(edges);
+
+        List<SubwayStations> stations = new ArrayList<>();
+        for (TopologyFixture.Station s : fixture.stations()) {
+            SubwayStations station = new SubwayStations();
+            station.setStationcode(s.code());
+            station.setStationname(s.name());
+            station.setStationeng(s.nameEng());
+            station.setLinenum(s.lineNum());
+            station.setOutercode(s.outerCode());
+            stations.add(station);
+        }
+        subwayStationRepository.saveAll(stations);
+
+        log.info("[LOADTEST] 노선 데이터 {}건, 역 {}건 저장", edges.size(), stations.size());
+    }
+
+    private static SubwayData edge(String lineNum, TopologyFixture.Station front, TopologyFixture.Station back) {
+        SubwayData data = new SubwayData();
+        data.setLinenum(lineNum);
+        data.setFrontStationname(front.name());
+        data.setFrontOutercode(front.outerCode());
+        data.setBackStationname(back.name());
+        data.setBackOutercode(back.outerCode());
+        data.setExpressYn("N");
+        return data;
+    }
+}
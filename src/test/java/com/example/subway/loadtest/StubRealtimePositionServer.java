@@ -0,0 +1,133 @@
+package com.example.subway.loadtest;
+
+import com.example.subway.service.SyncLines;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 서울 실시간 열차위치(realtimePosition) API의 로컬 스텁.
+ * 호선마다 상/하행 열차 몇 대가 TopologyFixture의 역 순서를 따라 일정한 간격으로 이동하는 것처럼 응답합니다.
+ * 열차 위치는 서버 시작 이후 경과 시간으로만 결정되므로 같은 설정이면 실행마다 같은 흐름이 재현됩니다.
+ *
+ * 요청 경로: /api/subway/{key}/xml/realtimePosition/0/100/{호선명}
+ */
+final class StubRealtimePositionServer implements AutoCloseable {
+
+    private static final DateTimeFormatter RECPTN_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final ZoneId ZONE = ZoneId.of("Asia/Seoul");
+
+    private final HttpServer server;
+    private final Map<String, List<String>> corridorsByApiLine = new HashMap<>();
+    private final Map<String, Integer> lineIndex = new HashMap<>();
+    private final int trainsPerDirection;
+    private final long stationIntervalMillis;
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong requests = new AtomicLong();
+
+    StubRealtimePositionServer(TopologyFixture fixture, int trainsPerDirection, long stationIntervalMillis)
+            throws IOException {
+        this.trainsPerDirection = trainsPerDirection;
+        this.stationIntervalMillis = stationIntervalMillis;
+        int index = 0;
+        for (Map.Entry<String, String> line : SyncLines.ALL.entrySet()) {
+            List<String> corridor = fixture.corridors().get(line.getValue());
+            if (corridor != null) {
+                corridorsByApiLine.put(line.getKey(), corridor);
+                lineIndex.put(line.getKey(), index++);
+            }
+        }
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/api/subway/", this::handle);
+        this.server.setExecutor(Executors.newFixedThreadPool(4));
+        this.server.start();
+    }
+
+    /** SubwaySyncService의 myapp.subway.api-url 로 넘길 URL 템플릿 */
+    String urlTemplate() {
+        return "http://127.0.0.1:" + server.getAddress().getPort()
+                + "/api/subway/%s/xml/realtimePosition/0/100/%s";
+    }
+
+    long requestCount() {
+        return requests.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        String path = exchange.getRequestURI().getRawPath();
+        String apiLine = URLDecoder.decode(path.substring(path.lastIndexOf('/') + 1), StandardCharsets.UTF_8);
+
+        byte[] body = render(apiLine).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/xml;charset=UTF-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private String render(String apiLine) {
+        List<String> corridor = corridorsByApiLine.get(apiLine);
+        if (corridor == null) {
+            return "<realtimePositionList><RESULT><code>INFO-200</code>"
+                    + "<message>해당하는 데이터가 없습니다.</message></RESULT></realtimePositionList>";
+        }
+
+        int line = lineIndex.get(apiLine);
+        long elapsed = System.currentTimeMillis() - startedAt;
+        String recptnDt = LocalDateTime.now(ZONE).format(RECPTN_FORMAT);
+        StringBuilder xml = new StringBuilder(512 * trainsPerDirection * 2)
+                .append("<realtimePositionList><RESULT><code>INFO-000</code><message>정상 처리되었습니다.</message></RESULT>");
+
+        int hops = corridor.size() - 1;
+        for (int direction = 0; direction < 2; direction++) {
+            for (int t = 0; t < trainsPerDirection; t++) {
+                // 열차끼리 노선 위에 고르게 흩어지도록 출발 위치를 나눔
+                long offset = (long) t * hops / trainsPerDirection;
+                long step = elapsed / stationIntervalMillis + offset;
+                int position = (int) (step % (hops + 1));
+                // 상행(0)은 마지막 역 -> 첫 역, 하행(1)은 첫 역 -> 마지막 역
+                String current = direction == 0 ? corridor.get(hops - position) : corridor.get(position);
+                String terminal = direction == 0 ? corridor.get(0) : corridor.get(hops);
+                String trainNo = String.format("%02d%d%03d", line, direction, t);
+
+                xml.append("<row>")
+                        .append(tag("subwayId", String.valueOf(1001 + line)))
+                        .append(tag("subwayNm", apiLine))
+                        .append(tag("statnId", String.valueOf(1_000_000_000L + line * 1000L + position)))
+                        .append(tag("statnNm", current))
+                        .append(tag("trainNo", trainNo))
+                        .append(tag("lastRecptnDt", recptnDt.substring(0, 10).replace("-", "")))
+                        .append(tag("recptnDt", recptnDt))
+                        .append(tag("updnLine", String.valueOf(direction)))
+                        .append(tag("statnTid", String.valueOf(1_000_000_000L + line * 1000L + (direction == 0 ? 0 : hops))))
+                        .append(tag("statnTnm", terminal))
+                        .append(tag("trainSttus", String.valueOf((int) ((elapsed / (stationIntervalMillis / 3 + 1)) % 3))))
+                        .append(tag("directAt", "0"))
+                        .append(tag("lstcarAt", "0"))
+                        .append("</row>");
+            }
+        }
+        return xml.append("</realtimePositionList>").toString();
+    }
+
+    private static String tag(String name, String value) {
+        return "<" + name + ">" + value + "</" + name + ">";
+    }
+}
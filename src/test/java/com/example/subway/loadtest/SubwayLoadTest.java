@@ -0,0 +1,248 @@
+package com.example.subway.loadtest;
+
+import com.example.subway.service.TrainSnapshotService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 오프라인 부하 테스트. 로컬 스텁 API + H2(MySQL 모드)로 애플리케이션을 띄우고
+ * 역 조회 / 다음 열차 / 로그인 / 회원가입 / 프로필 수정을 섞어 고정 도착률로 보낸 뒤 처리량과 지연시간 분위수를 보고합니다.
+ *
+ * 기본 test 태스크에서는 제외되며 ./gradlew loadTest 로 실행합니다. 설정(시스템 프로퍼티):
+ * - loadtest.rate       초당 요청 수 (기본 100)
+ * - loadtest.duration   측정 구간 초 (기본 30)
+ * - loadtest.warmup     워밍업 초 (기본 10)
+ * - loadtest.mix        트래픽 비율 (기본 station=60,next=10,login=15,register=5,profile=10)
+ *                       batch=N 을 추가하면 30개 역 일괄 조회(/api/stations/trains)도 섞음
+ * - loadtest.users      미리 가입시켜 둘 사용자 수 (기본 50)
+ * - loadtest.seed       요청 순서 난수 시드 (기본 42, 같은 시드면 같은 요청 순서)
+ *
+ * 결과는 build/loadtest/loadtest-{sha}-{시각}.json 에 저장되어 커밋 간 비교에 사용합니다.
+ */
+@Tag("load")
+@Import(LoadTestTopologySeeder.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:loadtest;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.show-sql=false",
+        "myapp.schedule.subway-refresh=5000",
+        "myapp.history.dir=build/loadtest/history",
+        "myapp.pathfinding.diagnostics-file=build/loadtest/bfs_failures.jsonl",
+        "logging.level.com.example.subway=WARN"
+})
+class SubwayLoadTest {
+
+    private static final Path DATA_JSON = Paths.get("dataset", "data.json");
+    private static final Path REPORT_DIR = Paths.get("build", "loadtest");
+    private static final String PASSWORD = "loadtest-pw";
+
+    private static TopologyFixture fixture;
+    private static StubRealtimePositionServer stub;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private TrainSnapshotService trainSnapshotService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    static synchronized TopologyFixture fixture() throws IOException {
+        if (fixture == null) {
+            fixture = TopologyFixture.load(DATA_JSON);
+        }
+        return fixture;
+    }
+
+    @DynamicPropertySource
+    static void upstream(DynamicPropertyRegistry registry) throws IOException {
+        // 스텁 열차는 10초마다 한 정거장씩 이동
+        stub = new StubRealtimePositionServer(fixture(), 4, 10_000);
+        registry.add("myapp.subway.api-url", stub::urlTemplate);
+    }
+
+    @AfterAll
+    static void stopUpstream() {
+        if (stub != null) {
+            stub.close();
+        }
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "100"));
+        Duration duration = Duration.ofSeconds(Long.getLong("loadtest.duration", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("loadtest.warmup", 10));
+        String mix = System.getProperty("loadtest.mix", "station=60,next=10,login=15,register=5,profile=10");
+        int userCount = Integer.getInteger("loadtest.users", 50);
+        long seed = Long.getLong("loadtest.seed", 42);
+
+        String base = "http://127.0.0.1:" + port;
+        List<String> stations = fixture().servedStationNames();
+        awaitFirstSnapshot();
+        List<long[]> users = registerUsers(base, stations, userCount);
+
+        AtomicLong registered = new AtomicLong();
+        Map<String, Integer> weights = LoadGenerator.parseMix(mix);
+        List<LoadGenerator.Operation> operations = List.of(
+                new LoadGenerator.Operation("station", weights.getOrDefault("station", 0),
+                        r -> HttpRequest.newBuilder(LoadGenerator.uri(base, "/api/station/"
+                                        + URLEncoder.encode(pick(stations, r), StandardCharsets.UTF_8).replace("+", "%20")))
+                                .header("Accept-Encoding", "gzip")
+                                .GET().build(),
+                        Set.of(200, 304)),
+                new LoadGenerator.Operation("batch", weights.getOrDefault("batch", 0),
+                        r -> HttpRequest.newBuilder(LoadGenerator.uri(base, "/api/stations/trains?stations="
+                                        + URLEncoder.encode(String.join(",", pickMany(stations, r, 30)), StandardCharsets.UTF_8)))
+                                .GET().build(),
+                        Set.of(200, 304)),
+                new LoadGenerator.Operation("next", weights.getOrDefault("next", 0),
+                        r -> HttpRequest.newBuilder(LoadGenerator.uri(base,
+                                        "/api/users/" + users.get(r.nextInt(users.size()))[0] + "/next-trains"))
+                                .header("Accept-Encoding", "gzip")
+                                .GET().build(),
+                        Set.of(200, 304)),
+                new LoadGenerator.Operation("login", weights.getOrDefault("login", 0),
+                        r -> post(base + "/api/users/login",
+                                "{\"username\":\"lt-user-" + users.get(r.nextInt(users.size()))[1]
+                                        + "\",\"password\":\"" + PASSWORD + "\"}"),
+                        Set.of(200)),
+                new LoadGenerator.Operation("register", weights.getOrDefault("register", 0),
+                        r -> post(base + "/api/users/register",
+                                registration("lt-new-" + seed + "-" + registered.incrementAndGet(), pick(stations, r))),
+                        Set.of(200)),
+                new LoadGenerator.Operation("profile", weights.getOrDefault("profile", 0),
+                        r -> HttpRequest.newBuilder(LoadGenerator.uri(base,
+                                        "/api/users/" + users.get(r.nextInt(users.size()))[0] + "/profile"))
+                                .header("Content-Type", "application/json")
+                                .PUT(HttpRequest.BodyPublishers.ofString(
+                                        "{\"workStation\":\"" + pick(stations, r) + "\",\"alertThreshold\":"
+                                                + (1 + r.nextInt(5)) + "}"))
+                                .build(),
+                        Set.of(200))
+        );
+
+        LoadGenerator generator = new LoadGenerator(operations);
+        Map<String, LatencyRecorder> recorders;
+        try {
+            recorders = generator.run(rate, warmup, duration, seed);
+        } finally {
+            generator.shutdown();
+        }
+
+        Path report = writeReport(rate, warmup, duration, mix, seed, recorders);
+        System.out.println("[LOADTEST] 결과: " + report.toAbsolutePath());
+        System.out.println(Files.readString(report));
+
+        long measured = recorders.values().stream().mapToLong(LatencyRecorder::count).sum();
+        assertTrue(measured > 0, "측정 구간에 성공한 요청이 없습니다.");
+    }
+
+    private void awaitFirstSnapshot() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (trainSnapshotService.getSnapshot().getTrains().isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(200);
+        }
+        assertTrue(!trainSnapshotService.getSnapshot().getTrains().isEmpty(), "스텁 열차가 스냅샷에 반영되지 않았습니다.");
+    }
+
+    // 로그인/프로필 트래픽용 사용자 풀. [userId, 사용자 번호]
+    private List<long[]> registerUsers(String base, List<String> stations, int count) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        List<long[]> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            HttpResponse<String> response = client.send(
+                    post(base + "/api/users/register", registration("lt-user-" + i, stations.get(i % stations.size()))),
+                    HttpResponse.BodyHandlers.ofString());
+            JsonNode body = objectMapper.readTree(response.body());
+            users.add(new long[]{body.path("id").asLong(), i});
+        }
+        return users;
+    }
+
+    private Path writeReport(double rate, Duration warmup, Duration duration, String mix, long seed,
+                             Map<String, LatencyRecorder> recorders) {
+        String sha = System.getProperty("loadtest.gitSha", "unknown");
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("gitSha", sha);
+        report.put("timestamp", LocalDateTime.now().toString());
+        report.put("javaVersion", System.getProperty("java.version"));
+        report.put("availableProcessors", Runtime.getRuntime().availableProcessors());
+        report.put("targetRatePerSec", rate);
+        report.put("warmupSeconds", warmup.toSeconds());
+        report.put("durationSeconds", duration.toSeconds());
+        report.put("mix", mix);
+        report.put("seed", seed);
+        report.put("upstreamRequests", stub.requestCount());
+        report.put("snapshotVersion", trainSnapshotService.getSnapshot().getVersion());
+        Map<String, Object> operations = new LinkedHashMap<>();
+        recorders.forEach((name, recorder) -> operations.put(name, recorder.summary(duration.toMillis() / 1000.0)));
+        report.put("operations", operations);
+
+        try {
+            Files.createDirectories(REPORT_DIR);
+            Path file = REPORT_DIR.resolve("loadtest-" + sha + "-"
+                    + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".json");
+            objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file.toFile(), report);
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static HttpRequest post(String url, String json) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build();
+    }
+
+    private static String registration(String username, String workStation) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + PASSWORD
+                + "\",\"workStation\":\"" + workStation + "\",\"alertThreshold\":3}";
+    }
+
+    private static <T> T pick(List<T> list, Random random) {
+        return list.get(random.nextInt(list.size()));
+    }
+
+    private static <T> List<T> pickMany(List<T> list, Random random, int count) {
+        List<T> picked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            picked.add(pick(list, random));
+        }
+        return picked;
+    }
+}
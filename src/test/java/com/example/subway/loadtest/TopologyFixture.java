@@ -0,0 +1,101 @@
+package com.example.subway.loadtest;
+
+import com.example.subway.service.SyncLines;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * dataset/data.json 에서 부하 테스트용 노선 데이터를 읽어옵니다.
+ * 호선명은 dataset/2.py와 같은 규칙으로 DB 호선명으로 바꿉니다.
+ */
+final class TopologyFixture {
+
+    // dataset/2.py 의 line_rename_map 과 동일
+    private static final Map<String, String> LINE_RENAME = Map.of(
+            "인천1호선", "인천선",
+            "경의중앙선", "경의선",
+            "김포골드라인", "김포도시철도",
+            "용인에버라인", "용인경전철",
+            "GTXA", "GTX-A");
+
+    /** 인접한 두 역 (DB 호선명 기준) */
+    record Edge(String lineNum, Station front, Station back) {
+    }
+
+    record Station(String code, String name, String nameEng, String lineNum, String outerCode) {
+    }
+
+    private final List<Edge> edges = new ArrayList<>();
+    private final Map<String, Station> stations = new LinkedHashMap<>();
+    // 동기화 대상 호선별로 끊김 없이 이어진 첫 번째 역 순서 (스텁 열차가 이 위를 운행)
+    private final Map<String, List<String>> corridors = new LinkedHashMap<>();
+
+    private TopologyFixture() {
+    }
+
+    static TopologyFixture load(Path dataJson) throws IOException {
+        TopologyFixture fixture = new TopologyFixture();
+        JsonNode root = new ObjectMapper().readTree(dataJson.toFile());
+        Set<String> syncedLines = new HashSet<>(SyncLines.ALL.values());
+
+        for (JsonNode line : root.path("DATA")) {
+            String lineNum = LINE_RENAME.getOrDefault(line.path("line").asText(), line.path("line").asText());
+            List<String> corridor = new ArrayList<>();
+            boolean corridorClosed = false;
+
+            for (JsonNode node : line.path("node")) {
+                JsonNode pair = node.path("station");
+                if (pair.size() != 2) {
+                    continue;
+                }
+                Station front = fixture.station(pair.get(0), lineNum);
+                Station back = fixture.station(pair.get(1), lineNum);
+                fixture.edges.add(new Edge(lineNum, front, back));
+
+                if (corridorClosed) {
+                    continue;
+                }
+                if (corridor.isEmpty()) {
+                    corridor.add(front.name());
+                } else if (!corridor.get(corridor.size() - 1).equals(front.name())) {
+                    corridorClosed = true;
+                    continue;
+                }
+                corridor.add(back.name());
+            }
+            if (syncedLines.contains(lineNum) && corridor.size() >= 2 && !fixture.corridors.containsKey(lineNum)) {
+                fixture.corridors.put(lineNum, List.copyOf(corridor));
+            }
+        }
+        return fixture;
+    }
+
+    private Station station(JsonNode node, String lineNum) {
+        String code = node.path("station_cd").asText();
+        return stations.computeIfAbsent(code, c -> new Station(c, node.path("name").asText(),
+                node.path("station_nm_eng").asText(null), lineNum, node.path("fr_code").asText(null)));
+    }
+
+    List<Edge> edges() {
+        return edges;
+    }
+
+    Collection<Station> stations() {
+        return stations.values();
+    }
+
+    Map<String, List<String>> corridors() {
+        return corridors;
+    }
+
+    /** 스텁 열차가 지나가는 역 이름 (조회 트래픽 대상) */
+    List<String> servedStationNames() {
+        Set<String> names = new LinkedHashSet<>();
+        corridors.values().forEach(names::addAll);
+        return new ArrayList<>(names);
+    }
+}
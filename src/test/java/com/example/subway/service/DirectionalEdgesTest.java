@@ -0,0 +1,105 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.SubwayData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * upDown 없이 적재된 연결(dataset/2.py)에서 진행 방향별 경로가 외부코드 규칙대로 나오는지 확인합니다.
+ */
+class DirectionalEdgesTest {
+
+    // 2호선 축소판: 순환 A(201) -> B(202) -> C(203) -> D(204) -> A, C에서 지선 E(203-1) -> F(203-2)
+    private static final String[][] RING = {
+            {"A", "201", "B", "202"},
+            {"B", "202", "C", "203"},
+            {"C", "203", "D", "204"},
+            {"D", "204", "A", "201"},
+            {"C", "203", "E", "203-1"},
+            {"E", "203-1", "F", "203-2"},
+    };
+
+    // 1호선 축소판: 연천(100-2) -> 전곡(100-1) -> 소요산(100) -> 101 -> 구로(102)에서 인천 방면(103, 104)과 천안 방면(P103, P104)으로 분기
+    private static final String[][] BRANCH = {
+            {"연천", "100-2", "전곡", "100-1"},
+            {"전곡", "100-1", "소요산", "100"},
+            {"소요산", "100", "동두천", "101"},
+            {"동두천", "101", "구로", "102"},
+            {"구로", "102", "구일", "103"},
+            {"구일", "103", "인천", "104"},
+            {"구로", "102", "가산", "P103"},
+            {"가산", "P103", "천안", "P104"},
+    };
+
+    @Test
+    void ringIncreasingCodesAreInnerCircle() {
+        Map<String, LineTopology> topologies = directed(RING);
+
+        // 내선(0): 외부코드가 커지는 쪽(시계방향)으로만 돎. 반대쪽(A -> D)이 더 가까워도 그쪽으로 가지 않음
+        assertEquals(List.of("A", "B", "C", "D"), topologies.get("0").route("A", "D"));
+        // 외선(1): 반대 방향
+        assertEquals(List.of("A", "D", "C", "B"), topologies.get("1").route("A", "B"));
+    }
+
+    @Test
+    void ringBranchRunsAwayFromRingOnDown() {
+        Map<String, LineTopology> topologies = directed(RING);
+
+        assertEquals(List.of("C", "E", "F"), topologies.get("1").route("C", "F"));
+        // 상행(0)은 지선에서 순환 구간으로 들어와 내선 방향으로 돎
+        assertEquals(List.of("F", "E", "C", "D", "A"), topologies.get("0").route("F", "A"));
+        assertTrue(topologies.get("1").route("F", "C").isEmpty());
+    }
+
+    @Test
+    void treeDownRunsAwayFromTerminalChosenByCodes() {
+        Map<String, LineTopology> topologies = directed(BRANCH);
+
+        // 번호가 거꾸로 붙은 연장 구간(연천 100-2 -> 소요산 100)이 있어도 연천이 상행 종점
+        assertEquals(List.of("연천", "전곡", "소요산", "동두천", "구로", "구일", "인천"),
+                topologies.get("1").route("연천", "인천"));
+        assertEquals(List.of("천안", "가산", "구로", "동두천", "소요산", "전곡", "연천"),
+                topologies.get("0").route("천안", "연천"));
+    }
+
+    @Test
+    void treeDoesNotReverseAtFork() {
+        Map<String, LineTopology> topologies = directed(BRANCH);
+
+        // 하행 열차가 구로에서 다른 지선으로 되돌아가는 경로는 없음
+        assertTrue(topologies.get("1").route("인천", "천안").isEmpty());
+        assertTrue(topologies.get("0").route("연천", "소요산").isEmpty());
+    }
+
+    private static Map<String, LineTopology> directed(String[][] fixture) {
+        List<SubwayData> rows = new ArrayList<>();
+        List<String[]> edges = new ArrayList<>();
+        for (String[] e : fixture) {
+            // dataset/2.py처럼 한 연결을 양방향 두 행으로 적재 (upDown 없음)
+            rows.add(row(e[0], e[1], e[2], e[3]));
+            rows.add(row(e[2], e[3], e[0], e[1]));
+            edges.add(new String[]{e[0], e[2]});
+        }
+        LineTopology undirected = LineTopology.build("test", edges);
+        Map<String, List<String[]>> split = DirectionalEdges.split(rows, undirected);
+        return Map.of(
+                DirectionalEdges.UP, LineTopology.build("test", split.get(DirectionalEdges.UP), true),
+                DirectionalEdges.DOWN, LineTopology.build("test", split.get(DirectionalEdges.DOWN), true));
+    }
+
+    private static SubwayData row(String front, String frontCode, String back, String backCode) {
+        SubwayData data = new SubwayData();
+        data.setLinenum("test");
+        data.setFrontStationname(front);
+        data.setFrontOutercode(frontCode);
+        data.setBackStationname(back);
+        data.setBackOutercode(backCode);
+        return data;
+    }
+}
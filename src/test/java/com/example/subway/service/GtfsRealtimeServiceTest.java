@@ -0,0 +1,72 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.LiveTrain;
+import com.google.transit.realtime.GtfsRealtime.FeedEntity;
+import com.google.transit.realtime.GtfsRealtime.FeedMessage;
+import com.google.transit.realtime.GtfsRealtime.TripUpdate;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 동기화마다 지나온 역을 잘라낸 경로로 게시해도 같은 역의 stop_sequence가 유지되는지 확인합니다.
+ */
+class GtfsRealtimeServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2025, 2, 7, 8, 0);
+
+    private final StationDictionary dictionary = new StationDictionary();
+    private final GtfsRealtimeService service = new GtfsRealtimeService(dictionary, 120, 20);
+
+    @Test
+    void stopKeepsSequenceWhileTrainMoves() throws Exception {
+        // 1회차: 시청에 도착, 경로 시청 -> 을지로입구 -> 을지로3가 -> 을지로4가 (처음 구한 경로, offset 0)
+        service.publish(snapshot(1, train("시청", 0, T0, "시청", "을지로입구", "을지로3가", "을지로4가")));
+        FeedEntity first = entity(service.getFull().body());
+
+        // 2회차: 을지로입구에 도착. route 단계가 지나온 시청을 잘라내고 offset을 1로 올림
+        service.publish(snapshot(2, train("을지로입구", 1, T0.plusMinutes(2), "을지로입구", "을지로3가", "을지로4가")));
+        FeedEntity second = entity(service.getFull().body());
+
+        Map<String, Integer> before = sequences(first.getTripUpdate());
+        Map<String, Integer> after = sequences(second.getTripUpdate());
+        assertEquals(Map.of("시청", 0, "을지로입구", 1, "을지로3가", 2, "을지로4가", 3), before);
+        assertEquals(Map.of("을지로입구", 1, "을지로3가", 2, "을지로4가", 3), after);
+        assertEquals(0, first.getVehicle().getCurrentStopSequence());
+        assertEquals(1, second.getVehicle().getCurrentStopSequence());
+    }
+
+    private LiveTrain train(String current, int routeOffset, LocalDateTime observed, String... route) {
+        int[] ids = new int[route.length];
+        for (int i = 0; i < route.length; i++) {
+            ids[i] = dictionary.intern(route[i]);
+        }
+        return new LiveTrain("2001", "2호선", (short) 1002, -1, -1,
+                dictionary.intern(current), dictionary.intern(route[route.length - 1]),
+                LiveTrain.Direction.UP, LiveTrain.Status.ARRIVE, LiveTrain.ServiceType.LOCAL, false,
+                observed, observed, ids, routeOffset);
+    }
+
+    private static TrainSnapshot snapshot(long version, LiveTrain train) {
+        return new TrainSnapshot(version, T0.plusMinutes(version), List.of(train));
+    }
+
+    private static FeedEntity entity(byte[] feed) throws Exception {
+        FeedMessage message = FeedMessage.parseFrom(feed);
+        assertEquals(1, message.getEntityCount());
+        return message.getEntity(0);
+    }
+
+    private static Map<String, Integer> sequences(TripUpdate tripUpdate) {
+        Map<String, Integer> result = new HashMap<>();
+        for (TripUpdate.StopTimeUpdate stop : tripUpdate.getStopTimeUpdateList()) {
+            result.put(stop.getStopId(), stop.getStopSequence());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.subway.service;
+
+import com.example.subway.domain.TrainInfo;
+import com.example.subway.domain.User;
+import com.example.subway.repository.FiredAlertRepository;
+import com.example.subway.repository.UserRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 막차 알림이 "알림 범위 밖 -> 안"으로 들어온 순간에 한 번만 나가는지 확인합니다.
+ */
+class NotificationServiceTest {
+
+    // 을지로4가에서 일하고 2정거장 전에 알림을 받는 사용자
+    private static final List<String> LINE = List.of("서울역", "시청", "을지로입구", "을지로3가", "을지로4가", "동대문역사문화공원");
+    private static final String WORK = "을지로4가";
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // fired_alert 테이블 대신 (운행일, 사용자, 열차) 키 집합으로 INSERT IGNORE를 흉내냄
+    private final Set<List<Object>> firedKeys = new HashSet<>();
+    private File alertFile;
+    private NotificationService service;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("commuter");
+        user.setWorkStation(WORK);
+        user.setAlertThreshold(2);
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAll()).thenReturn(List.of(user));
+
+        FiredAlertRepository firedAlertRepository = mock(FiredAlertRepository.class);
+        when(firedAlertRepository.insertIfAbsent(any(), any(), any(), any(), anyInt(), any()))
+                .thenAnswer(inv -> firedKeys.add(List.of(inv.getArgument(0), inv.getArgument(1), inv.getArgument(2))) ? 1 : 0);
+
+        alertFile = dir.resolve("alert.json").toFile();
+        service = new NotificationService(userRepository, firedAlertRepository, objectMapper,
+                new SimpleMeterRegistry(), 60000, 30, alertFile.getPath());
+    }
+
+    @Test
+    void trainAdvancingTwoStopsIntoWindowFiresOnce() throws Exception {
+        // 처음 보는 열차가 4정거장 전: 범위 밖
+        moved(train("1001", "서울역"), null, null, path("서울역"));
+        assertEquals(List.of(), remainingStops());
+
+        // 3정거장 전(시청) -> 1정거장 전(을지로3가): 폴링 사이에 두 정거장을 움직여 2정거장 전을 건너뜀
+        moved(train("1001", "시청"), "서울역", path("서울역"), path("시청"));
+        moved(train("1001", "을지로3가"), "시청", path("시청"), path("을지로3가"));
+        assertEquals(List.of(1), remainingStops());
+
+        // 범위 안에서 더 움직여도 다시 보내지 않음
+        moved(train("1001", WORK), "을지로3가", path("을지로3가"), path(WORK));
+        assertEquals(List.of(1), remainingStops());
+    }
+
+    @Test
+    void newTrainAlreadyInsideWindowFires() throws Exception {
+        // 처음 보는 열차가 이미 1정거장 전
+        moved(train("1002", "을지로3가"), null, null, path("을지로3가"));
+        assertEquals(List.of(1), remainingStops());
+    }
+
+    @Test
+    void rerouteOntoWorkStationFiresOnlyOnce() throws Exception {
+        // 지선 방향 경로에는 근무역이 없었는데, 경로를 다시 구하니 2정거장 전
+        List<String> branch = List.of("을지로입구", "종각", "종로3가");
+        moved(train("1003", "을지로입구"), "을지로입구", branch, path("을지로입구"));
+        assertEquals(List.of(2), remainingStops());
+
+        // 다시 경로가 바뀌어 이전 경로에서 근무역을 못 찾더라도 같은 운행일에는 중복으로 보지 않음
+        moved(train("1003", "을지로3가"), "을지로입구", branch, path("을지로3가"));
+        assertEquals(List.of(2), remainingStops());
+    }
+
+    private void moved(TrainInfo train, String previousStation, List<String> previousPath, List<String> path) {
+        service.onTrainsMoved(List.of(new NotificationService.Transition(train, previousStation, previousPath, path)));
+    }
+
+    // current부터 남은 경로 (route 단계가 지나온 역을 잘라낸 모양)
+    private static List<String> path(String current) {
+        return LINE.subList(LINE.indexOf(current), LINE.size());
+    }
+
+    private static TrainInfo train(String trainNo, String current) {
+        TrainInfo train = new TrainInfo();
+        train.setTrainNo(trainNo);
+        train.setLstcarAt("1");
+        train.setCurrentStation(current);
+        return train;
+    }
+
+    private List<Map<String, Object>> alerts() throws Exception {
+        if (!alertFile.exists()) {
+            return List.of();
+        }
+        return objectMapper.readValue(alertFile, new TypeReference<List<Map<String, Object>>>() {});
+    }
+
+    private List<Integer> remainingStops() throws Exception {
+        List<Integer> result = new ArrayList<>();
+        for (Map<String, Object> alert : alerts()) {
+            assertEquals(WORK, alert.get("workStation"));
+            result.add((Integer) alert.get("remainingStops"));
+        }
+        return result;
+    }
+}